@@ -0,0 +1,109 @@
+package app.foxochat.loadtest;
+
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
+
+final class BenchmarkSupport {
+
+    private static volatile long sink;
+
+    private BenchmarkSupport() {
+    }
+
+    // only what the gateway touches is answered, everything else returns null
+    static WebSocketSession socket(String id, Consumer<WebSocketMessage<?>> sent) {
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+                new Class<?>[]{WebSocketSession.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "isOpen" -> true;
+                    case "getAttributes" -> attributes;
+                    case "sendMessage" -> {
+                        sent.accept((WebSocketMessage<?>) args[0]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "socket-" + id;
+                    default -> null;
+                });
+    }
+
+    // median nanoseconds per call over the measured rounds, the op's results are consumed so they are not optimized out
+    static double nanosPerOp(int warmupRounds, int rounds, int opsPerRound, IntToLongFunction op) {
+        double[] samples = new double[rounds];
+
+        for (int round = -warmupRounds; round < rounds; round++) {
+            long result = 0;
+            long startedAt = System.nanoTime();
+
+            for (int i = 0; i < opsPerRound; i++) {
+                result += op.applyAsLong(i);
+            }
+
+            long elapsed = System.nanoTime() - startedAt;
+            sink += result;
+
+            if (round >= 0) samples[round] = (double) elapsed / opsPerRound;
+        }
+
+        Arrays.sort(samples);
+        return samples[rounds / 2];
+    }
+
+    static double bytesPerOp(int ops, IntToLongFunction op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long result = 0;
+        long before = threads.getCurrentThreadAllocatedBytes();
+
+        for (int i = 0; i < ops; i++) {
+            result += op.applyAsLong(i);
+        }
+
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        sink += result;
+        return (double) allocated / ops;
+    }
+
+    static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    // appends one line per result to build/loadtest/benchmarks.jsonl next to the load test results
+    static void report(String benchmark, Map<String, Object> values) throws IOException {
+        Map<String, Object> result = new TreeMap<>(values);
+        result.put("benchmark", benchmark);
+        result.put("timestamp", Instant.now().toString());
+
+        StringBuilder line = new StringBuilder("{");
+        result.forEach((key, value) -> {
+            if (line.length() > 1) line.append(',');
+            line.append('"').append(key).append("\":");
+            line.append(value instanceof String ? "\"" + value + "\"" : value);
+        });
+        line.append('}');
+
+        Path output = Path.of("build", "loadtest", "benchmarks.jsonl");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        System.out.println(line);
+    }
+}
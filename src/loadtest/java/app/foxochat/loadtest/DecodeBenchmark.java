@@ -0,0 +1,102 @@
+package app.foxochat.loadtest;
+
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.EventDTO;
+import app.foxochat.dto.gateway.request.IdentifyDTO;
+import app.foxochat.dto.gateway.request.ResumeDTO;
+import app.foxochat.dto.gateway.request.TypingDTO;
+import app.foxochat.handler.structure.GatewayCodec;
+import app.foxochat.handler.structure.GatewayMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// ./gradlew benchmark -Pbenchmark=DecodeBenchmark -Pbenchmark.frames=100000
+// decodes inbound frames op-first into the handler's payload type, and as before into an untyped EventDTO
+// converted afterwards, appends time and allocation per frame to build/loadtest/benchmarks.jsonl
+public class DecodeBenchmark {
+
+    private final int frames = Integer.getInteger("benchmark.frames", 100000);
+
+    private final int rounds = Integer.getInteger("benchmark.rounds", 10);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    private final GatewayCodec codec = new GatewayCodec(mapper, new GatewayMetrics(new SimpleMeterRegistry()));
+
+    private final IntFunction<Class<?>> payloadTypes = DecodeBenchmark::payloadType;
+
+    public static void main(String[] args) throws Exception {
+        DecodeBenchmark benchmark = new DecodeBenchmark();
+
+        for (Map.Entry<String, String> frame : frames().entrySet()) {
+            benchmark.run(frame.getKey(), frame.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> frames() {
+        Map<String, String> frames = new LinkedHashMap<>();
+        frames.put("heartbeat", "{\"op\":3}");
+        frames.put("identify", "{\"op\":1,\"d\":{\"token\":\"eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiIxMDQyIn0."
+                + "Jk3Yq7c2bY0Vb8yS2x6Qe9mJm1pX1pVf5xw0aQv3rKc\"}}");
+        frames.put("typing", "{\"op\":0,\"d\":{\"channel_id\":3301}}");
+        return frames;
+    }
+
+    // mirrors the payload types the gateway handlers declare
+    private static Class<?> payloadType(int opcode) {
+        if (opcode < 0 || opcode >= GatewayConstant.Opcode.values().length) return null;
+
+        return switch (GatewayConstant.Opcode.values()[opcode]) {
+            case DISPATCH -> TypingDTO.class;
+            case IDENTIFY -> IdentifyDTO.class;
+            case HEARTBEAT -> Void.class;
+            case RESUME -> ResumeDTO.class;
+            default -> null;
+        };
+    }
+
+    private void run(String name, byte[] frame) throws Exception {
+        double opFirstNanos = BenchmarkSupport.nanosPerOp(3, rounds, frames, i -> decodeOpFirst(frame));
+        double treeNanos = BenchmarkSupport.nanosPerOp(3, rounds, frames, i -> decodeTree(frame));
+
+        BenchmarkSupport.report("decode", Map.of(
+                "frame", name,
+                "opFirstNanosPerFrame", BenchmarkSupport.round(opFirstNanos),
+                "opFirstBytesPerFrame", BenchmarkSupport.round(BenchmarkSupport.bytesPerOp(frames,
+                        i -> decodeOpFirst(frame))),
+                "treeNanosPerFrame", BenchmarkSupport.round(treeNanos),
+                "treeBytesPerFrame", BenchmarkSupport.round(BenchmarkSupport.bytesPerOp(frames,
+                        i -> decodeTree(frame)))));
+    }
+
+    private long decodeOpFirst(byte[] frame) {
+        try {
+            EventDTO event = codec.decode(GatewayConstant.Encoding.JSON, frame, payloadTypes);
+            return event.getOp() + (event.getD() != null ? 1 : 0);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the frame is bound to EventDTO with an untyped "d", which the handler then converts into its type
+    private long decodeTree(byte[] frame) {
+        try {
+            EventDTO event = mapper.readValue(frame, EventDTO.class);
+            Class<?> type = payloadType(event.getOp());
+            Object data = type != null && type != Void.class && event.getD() != null
+                    ? mapper.convertValue(event.getD(), type)
+                    : null;
+
+            return event.getOp() + (data != null ? 1 : 0);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package app.foxochat.loadtest;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.handler.structure.ChannelSubscriptionRegistry;
+import app.foxochat.handler.structure.SessionRegistry;
+import app.foxochat.model.Session;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// ./gradlew benchmark -Pbenchmark=DispatchBenchmark -Pbenchmark.sessions=10000,50000,100000 -Pbenchmark.recipients=100
+// resolves the sessions of one channel's members by scanning every connected session, as dispatch used to,
+// and through the per-user session index, appends results to build/loadtest/benchmarks.jsonl
+public class DispatchBenchmark {
+
+    private final int recipients = Integer.getInteger("benchmark.recipients", 100);
+
+    private final int rounds = Integer.getInteger("benchmark.rounds", 10);
+
+    public static void main(String[] args) throws Exception {
+        DispatchBenchmark benchmark = new DispatchBenchmark();
+
+        for (String sessions : System.getProperty("benchmark.sessions", "10000,50000,100000").split(",")) {
+            benchmark.run(Integer.parseInt(sessions.trim()));
+        }
+    }
+
+    private void run(int sessionCount) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SessionRegistry sessionRegistry = new SessionRegistry(new GatewayConfig(),
+                new ChannelSubscriptionRegistry(meterRegistry), meterRegistry);
+        List<Session> sessions = new ArrayList<>(sessionCount);
+
+        for (int i = 0; i < sessionCount; i++) {
+            Session session = new Session(BenchmarkSupport.socket(String.valueOf(i), message -> {
+            }), GatewayConstant.Encoding.JSON, GatewayConstant.Compression.NONE, null);
+            session.setUserId(i + 1);
+
+            sessionRegistry.register(session);
+            sessions.add(session);
+        }
+
+        Random random = new Random(sessionCount);
+        List<Long> recipientIds = new ArrayList<>(recipients);
+
+        for (int i = 0; i < recipients; i++) {
+            recipientIds.add((long) random.nextInt(sessionCount) + 1);
+        }
+
+        int scanOps = Math.max(1, 2_000_000 / sessionCount);
+        double scanNanos = BenchmarkSupport.nanosPerOp(3, rounds, scanOps, i -> {
+            long matched = 0;
+
+            for (Session session : sessions) {
+                if (recipientIds.contains(session.getUserId())) matched++;
+            }
+
+            return matched;
+        });
+
+        double indexedNanos = BenchmarkSupport.nanosPerOp(3, rounds, 20_000, i -> {
+            long matched = 0;
+
+            for (long userId : recipientIds) {
+                matched += sessionRegistry.getSessions(userId).length;
+            }
+
+            return matched;
+        });
+
+        BenchmarkSupport.report("dispatch", Map.of(
+                "sessions", sessionCount,
+                "recipients", recipients,
+                "scanNanosPerDispatch", BenchmarkSupport.round(scanNanos),
+                "indexedNanosPerDispatch", BenchmarkSupport.round(indexedNanos),
+                "speedup", BenchmarkSupport.round(scanNanos / indexedNanos)));
+    }
+}
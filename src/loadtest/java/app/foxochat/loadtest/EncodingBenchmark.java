@@ -0,0 +1,116 @@
+package app.foxochat.loadtest;
+
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.response.TypingStartDTO;
+import app.foxochat.dto.gateway.response.UserUpdateDTO;
+import app.foxochat.handler.structure.GatewayCodec;
+import app.foxochat.handler.structure.GatewayMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+// ./gradlew benchmark -Pbenchmark=EncodingBenchmark -Pbenchmark.frames=10000
+// encodes a stream of frames per event type for every encoding and compression a client can negotiate,
+// one deflate context per stream like a connection has, appends results to build/loadtest/benchmarks.jsonl
+public class EncodingBenchmark {
+
+    private final int frames = Integer.getInteger("benchmark.frames", 10000);
+
+    private final int rounds = Integer.getInteger("benchmark.rounds", 10);
+
+    private final GatewayCodec codec = new GatewayCodec(
+            new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE),
+            new GatewayMetrics(new SimpleMeterRegistry()));
+
+    public static void main(String[] args) throws Exception {
+        EncodingBenchmark benchmark = new EncodingBenchmark();
+
+        for (Map.Entry<GatewayConstant.Event, Object> event : events().entrySet()) {
+            for (GatewayConstant.Encoding encoding : GatewayConstant.Encoding.values()) {
+                for (GatewayConstant.Compression compression : GatewayConstant.Compression.values()) {
+                    benchmark.run(event.getKey(), event.getValue(), encoding, compression);
+                }
+            }
+        }
+    }
+
+    private static Map<GatewayConstant.Event, Object> events() {
+        Map<String, Object> author = new LinkedHashMap<>();
+        author.put("id", 4211);
+        author.put("user", Map.of("id", 1042, "username", "fennec", "display_name", "Fennec", "status", 1));
+        author.put("permissions", 0);
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", 918273);
+        message.put("content", "did anyone push the migration yet? the staging deploy is still on the old schema");
+        message.put("author", author);
+        message.put("channel", 3301);
+        message.put("attachments", List.of());
+        message.put("created_at", 1760000000000L);
+
+        Map<GatewayConstant.Event, Object> events = new LinkedHashMap<>();
+        events.put(GatewayConstant.Event.MESSAGE_CREATE, message);
+        events.put(GatewayConstant.Event.TYPING_START, new TypingStartDTO(3301, 1042, 1760000000000L));
+        events.put(GatewayConstant.Event.USER_UPDATE, new UserUpdateDTO(1042, null, null, null, 1, -1, -1));
+        return events;
+    }
+
+    private void run(GatewayConstant.Event event, Object data, GatewayConstant.Encoding encoding,
+                     GatewayConstant.Compression compression) throws Exception {
+        long wireBytes = 0;
+        Deflater deflater = compression == GatewayConstant.Compression.ZLIB_STREAM ? new Deflater() : null;
+
+        for (int i = 0; i < frames; i++) {
+            wireBytes += encode(event, data, encoding, deflater, i + 1).length;
+        }
+
+        double nanos = BenchmarkSupport.nanosPerOp(3, rounds, frames, i -> {
+            try {
+                return encode(event, data, encoding, deflater, i + 1).length;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        if (deflater != null) deflater.end();
+
+        BenchmarkSupport.report("encoding", Map.of(
+                "event", event.getValue(),
+                "encoding", encoding.getValue(),
+                "compression", compression.getValue(),
+                "rawBytesPerFrame", codec.encodeFrame(encoding,
+                        codec.encodeFramePrefix(encoding, 0, data, event.getValue()), frames).length,
+                "wireBytesPerFrame", BenchmarkSupport.round((double) wireBytes / frames),
+                "nanosPerFrame", BenchmarkSupport.round(nanos)));
+    }
+
+    private byte[] encode(GatewayConstant.Event event, Object data, GatewayConstant.Encoding encoding,
+                          Deflater deflater, int sequence) throws Exception {
+        byte[] prefix = codec.encodeFramePrefix(encoding, GatewayConstant.Opcode.DISPATCH.ordinal(), data,
+                event.getValue());
+        byte[] frame = codec.encodeFrame(encoding, prefix, sequence);
+
+        return deflater != null ? compress(deflater, frame) : frame;
+    }
+
+    private static byte[] compress(Deflater deflater, byte[] message) {
+        deflater.setInput(message);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, message.length / 2));
+        byte[] chunk = new byte[Math.max(64, Math.min(message.length + 64, 16384))];
+
+        int written;
+        do {
+            written = deflater.deflate(chunk, 0, chunk.length, Deflater.SYNC_FLUSH);
+            out.write(chunk, 0, written);
+        } while (written == chunk.length);
+
+        return out.toByteArray();
+    }
+}
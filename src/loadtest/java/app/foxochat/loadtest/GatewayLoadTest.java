@@ -0,0 +1,440 @@
+package app.foxochat.loadtest;
+
+import app.foxochat.Main;
+import app.foxochat.constant.ChannelConstant;
+import app.foxochat.constant.MemberConstant;
+import app.foxochat.constant.UserConstant;
+import app.foxochat.dto.api.request.ChannelCreateDTO;
+import app.foxochat.model.Channel;
+import app.foxochat.model.Member;
+import app.foxochat.model.User;
+import app.foxochat.repository.UserRepository;
+import app.foxochat.service.ChannelService;
+import app.foxochat.service.JwtService;
+import app.foxochat.service.MemberService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// ./gradlew loadTest -Ploadtest.clients=1000 -Ploadtest.messages=200 -Ploadtest.rate=50
+// -Ploadtest.soakMinutes=60 keeps reading users and message pages afterwards and samples heap and cache sizes
+// starts the app on an embedded postgres (or -Ploadtest.jdbcUrl=...), appends results to build/loadtest/results.jsonl
+public class GatewayLoadTest {
+
+    private static final String CONTENT_MARKER = "\"content\":\"load-";
+
+    private final int clients = Integer.getInteger("loadtest.clients", 1000);
+
+    private final int messages = Integer.getInteger("loadtest.messages", 200);
+
+    private final int rate = Integer.getInteger("loadtest.rate", 50);
+
+    private final int connectConcurrency = Integer.getInteger("loadtest.connectConcurrency", 64);
+
+    private final int timeout = Integer.getInteger("loadtest.timeout", 60);
+
+    private final int soakMinutes = Integer.getInteger("loadtest.soakMinutes", 0);
+
+    private final int soakSampleSeconds = Integer.getInteger("loadtest.soakSampleSeconds", 30);
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final AtomicLongArray sentAt = new AtomicLongArray(messages);
+
+    private final long[] latencies = new long[clients * messages];
+
+    private final AtomicInteger delivered = new AtomicInteger();
+
+    private final List<WebSocket> sockets = new ArrayList<>();
+
+    private final ScheduledExecutorService heartbeats =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("loadtest-heartbeat").factory());
+
+    public static void main(String[] args) throws Exception {
+        new GatewayLoadTest().run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        EmbeddedPostgres postgres = null;
+        String jdbcUrl = System.getProperty("loadtest.jdbcUrl");
+
+        if (jdbcUrl == null) {
+            postgres = EmbeddedPostgres.builder().start();
+            jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+        }
+
+        try (ConfigurableApplicationContext context = startApplication(jdbcUrl)) {
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port", "8080"));
+
+            List<String> tokens = new ArrayList<>();
+            long channelId = seed(context, tokens);
+
+            long heapBefore = usedHeap();
+            long connectStarted = System.nanoTime();
+            connect(port, tokens);
+            double connectSeconds = (System.nanoTime() - connectStarted) / 1e9;
+            long bytesPerSession = (usedHeap() - heapBefore) / clients;
+
+            sendMessages(port, channelId, tokens.getFirst());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+            while (delivered.get() < latencies.length && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+
+            Map<String, Object> soak = soakMinutes > 0 ? soak(context, port, channelId, tokens) : Map.of();
+
+            report(connectSeconds, bytesPerSession, soak);
+
+            heartbeats.shutdownNow();
+            sockets.forEach(WebSocket::abort);
+        } finally {
+            if (postgres != null) postgres.close();
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(String jdbcUrl) {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("management.server.port", 0);
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.jpa.hibernate.ddl-auto", "none");
+        properties.put("spring.threads.virtual.enabled", true);
+        properties.put("spring.jackson.property-naming-strategy", "SNAKE_CASE");
+        properties.put("logging.level.root", "WARN");
+        properties.put("jwt.secret", Base64.getEncoder().encodeToString(secret));
+        properties.put("api.version", 1);
+        properties.put("api.env", "dev");
+        properties.put("api.url", "http://localhost");
+        properties.put("api.cdn.url", "http://localhost");
+        properties.put("api.gateway.production_url", "ws://localhost");
+        properties.put("api.gateway.development_url", "ws://localhost");
+        properties.put("api.app.production_url", "http://localhost");
+        properties.put("api.app.development_url", "http://localhost");
+        properties.put("smtp.host", "localhost");
+        properties.put("smtp.port", 25);
+        properties.put("smtp.email", "loadtest@localhost");
+        properties.put("minio.url", "http://localhost:9000");
+        properties.put("minio.name", "loadtest");
+        properties.put("minio.secret", "loadtest");
+
+        return new SpringApplicationBuilder(Main.class).properties(properties).run();
+    }
+
+    private long seed(ConfigurableApplicationContext context, List<String> tokens) throws Exception {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JwtService jwtService = context.getBean(JwtService.class);
+        ChannelService channelService = context.getBean(ChannelService.class);
+        MemberService memberService = context.getBean(MemberService.class);
+
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<User> users = new ArrayList<>();
+
+        for (int i = 0; i < clients; i++) {
+            User user = new User("load" + run + "x" + i, "load" + run + "x" + i + "@localhost", null,
+                    UserConstant.Flags.EMAIL_VERIFIED.getBit(), UserConstant.Type.USER.getType());
+            users.add(user);
+        }
+
+        userRepository.saveAll(users);
+
+        ChannelCreateDTO body = new ChannelCreateDTO();
+        body.setDisplayName("Load " + run);
+        body.setName("load" + run);
+        body.setType(ChannelConstant.Type.GROUP.getType());
+        Channel channel = channelService.add(users.getFirst(), 0, body);
+
+        for (User user : users) {
+            tokens.add(jwtService.generate(user));
+
+            if (user != users.getFirst())
+                memberService.add(new Member(user, channel, MemberConstant.Permissions.SEND_MESSAGES.getBit()));
+        }
+
+        return channel.getId();
+    }
+
+    private void connect(int port, List<String> tokens) throws InterruptedException {
+        CountDownLatch identified = new CountDownLatch(tokens.size());
+        Semaphore inFlight = new Semaphore(connectConcurrency);
+        URI uri = URI.create("ws://localhost:" + port + "/");
+
+        for (String token : tokens) {
+            inFlight.acquire();
+
+            Client client = new Client(identified, inFlight);
+            httpClient.newWebSocketBuilder()
+                    .buildAsync(uri, client)
+                    .whenComplete((socket, error) -> {
+                        if (error != null) {
+                            inFlight.release();
+                            identified.countDown();
+                            System.err.println("Connect failed: " + error.getMessage());
+                            return;
+                        }
+
+                        synchronized (sockets) {
+                            sockets.add(socket);
+                        }
+
+                        socket.sendText("{\"op\":1,\"d\":{\"token\":\"" + token + "\"}}", true);
+                        heartbeats.scheduleAtFixedRate(() -> socket.sendText("{\"op\":3}", true),
+                                20, 20, TimeUnit.SECONDS);
+                    });
+        }
+
+        if (!identified.await(timeout, TimeUnit.SECONDS))
+            System.err.println("Only " + (tokens.size() - identified.getCount()) + " clients identified in time");
+    }
+
+    private void sendMessages(int port, long channelId, String token) throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/channels/" + channelId + "/messages");
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        long next = System.nanoTime();
+        List<CompletableFuture<HttpResponse<Void>>> requests = new ArrayList<>();
+
+        for (int i = 0; i < messages; i++) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            next += interval;
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"load-" + i + "\"}"))
+                    .build();
+
+            sentAt.set(i, System.nanoTime());
+            requests.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join();
+    }
+
+    private Map<String, Object> soak(ConfigurableApplicationContext context, int port, long channelId,
+                                     List<String> tokens) throws Exception {
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        List<Long> userIds = new ArrayList<>();
+        context.getBean(UserRepository.class).findAll().forEach(user -> userIds.add(user.getId()));
+        Random random = new Random();
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        long sampleInterval = TimeUnit.SECONDS.toNanos(soakSampleSeconds);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(soakMinutes);
+        long next = System.nanoTime();
+        long nextSample = next;
+        long requests = 0;
+        long heapStart = -1;
+        long heapMax = 0;
+        long heap = 0;
+
+        while (System.nanoTime() < deadline) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            next += interval;
+
+            // every page read has a new "before" key and every user read a random id, so caches only stay
+            // small if they are bounded
+            String path = requests % 2 == 0
+                    ? "/users/" + userIds.get(random.nextInt(userIds.size()))
+                    : "/channels/" + channelId + "/messages?before=" + System.currentTimeMillis() + "&limit=25";
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                    .GET()
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+            requests++;
+
+            if (System.nanoTime() >= nextSample) {
+                nextSample += sampleInterval;
+                heap = usedHeap();
+                if (heapStart < 0) heapStart = heap;
+                heapMax = Math.max(heapMax, heap);
+
+                StringBuilder sizes = new StringBuilder();
+                for (String name : cacheManager.getCacheNames()) {
+                    if (cacheManager.getCache(name) instanceof CaffeineCache cache)
+                        sizes.append(' ').append(name).append('=').append(cache.getNativeCache().estimatedSize());
+                }
+
+                System.out.println("soak requests=" + requests + " heap=" + heap + sizes);
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("soak_minutes", soakMinutes);
+        result.put("soak_requests", requests);
+        result.put("soak_heap_start_bytes", heapStart);
+        result.put("soak_heap_end_bytes", heap);
+        result.put("soak_heap_max_bytes", heapMax);
+        return result;
+    }
+
+    private void report(double connectSeconds, long bytesPerSession, Map<String, Object> soak) throws IOException {
+        int count = Math.min(delivered.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("commit", gitCommit());
+        result.put("timestamp", Instant.now().toString());
+        result.put("clients", clients);
+        result.put("messages", messages);
+        result.put("rate", rate);
+        result.put("expected", latencies.length);
+        result.put("delivered", count);
+        result.put("connect_per_second", Math.round(clients / connectSeconds));
+        result.put("heap_bytes_per_session", bytesPerSession);
+        result.put("latency_p50_ms", percentile(sorted, 0.50));
+        result.put("latency_p90_ms", percentile(sorted, 0.90));
+        result.put("latency_p99_ms", percentile(sorted, 0.99));
+        result.put("latency_p999_ms", percentile(sorted, 0.999));
+        result.put("latency_max_ms", percentile(sorted, 1.0));
+        result.putAll(soak);
+
+        StringBuilder line = new StringBuilder("{");
+        result.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            if (line.length() > 1) line.append(',');
+            line.append('"').append(entry.getKey()).append("\":");
+            line.append(entry.getValue() instanceof String ? "\"" + entry.getValue() + "\"" : entry.getValue());
+        });
+        line.append('}');
+
+        Path output = Path.of("build", "loadtest", "results.jsonl");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        System.out.println(line);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return -1;
+
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+            String commit = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+
+            return process.waitFor() == 0 && !commit.isEmpty() ? commit : "unknown";
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+
+    private class Client implements WebSocket.Listener {
+
+        private final CountDownLatch identified;
+
+        private final Semaphore inFlight;
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        private boolean hello;
+
+        private Client(CountDownLatch identified, Semaphore inFlight) {
+            this.identified = identified;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+
+            if (last) {
+                onFrame(buffer.toString());
+                buffer.setLength(0);
+            }
+
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            if (!hello) {
+                hello = true;
+                inFlight.release();
+                identified.countDown();
+            }
+
+            return null;
+        }
+
+        private void onFrame(String frame) {
+            long now = System.nanoTime();
+
+            if (!hello && frame.contains("\"op\":2")) {
+                hello = true;
+                inFlight.release();
+                identified.countDown();
+                return;
+            }
+
+            int marker = frame.indexOf(CONTENT_MARKER);
+            if (marker < 0 || !frame.contains("\"t\":\"MESSAGE_CREATE\"")) return;
+
+            int index = 0;
+            int i = marker + CONTENT_MARKER.length();
+            while (i < frame.length() && Character.isDigit(frame.charAt(i))) {
+                index = index * 10 + (frame.charAt(i++) - '0');
+            }
+
+            if (index >= messages) return;
+
+            int slot = delivered.getAndIncrement();
+            if (slot < latencies.length) latencies[slot] = now - sentAt.get(index);
+        }
+    }
+}
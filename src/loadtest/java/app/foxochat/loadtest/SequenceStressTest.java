@@ -0,0 +1,178 @@
+package app.foxochat.loadtest;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.EventFrame;
+import app.foxochat.handler.structure.GatewayCodec;
+import app.foxochat.handler.structure.GatewayMetrics;
+import app.foxochat.handler.structure.ReplayBuffer;
+import app.foxochat.handler.structure.SessionWriter;
+import app.foxochat.model.Session;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// ./gradlew benchmark -Pbenchmark=SequenceStressTest -Pbenchmark.sessions=64 -Pbenchmark.producers=8
+// several threads dispatch to the same sessions at once, every session must see consecutive sequence numbers
+// with no duplicates, each producer's frames in the order it sent them, and never two sends in flight
+public class SequenceStressTest {
+
+    private static final Pattern PRODUCER = Pattern.compile("\"producer\":(\\d+)");
+
+    private static final Pattern INDEX = Pattern.compile("\"index\":(\\d+)");
+
+    private static final Pattern SEQUENCE = Pattern.compile("\"s\":(\\d+)}$");
+
+    private final int sessionCount = Integer.getInteger("benchmark.sessions", 64);
+
+    private final int producers = Integer.getInteger("benchmark.producers", 8);
+
+    private final int frames = Integer.getInteger("benchmark.frames", 2000);
+
+    private final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        SequenceStressTest test = new SequenceStressTest();
+        test.run();
+
+        if (!test.failures.isEmpty()) {
+            test.failures.stream().limit(20).forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    private void run() throws Exception {
+        GatewayConfig gatewayConfig = new GatewayConfig();
+        gatewayConfig.setOutboundBufferSize(Long.MAX_VALUE / 2);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GatewayMetrics gatewayMetrics = new GatewayMetrics(meterRegistry);
+        SessionWriter sessionWriter = new SessionWriter(gatewayConfig,
+                new GatewayCodec(new ObjectMapper(), gatewayMetrics), gatewayMetrics, meterRegistry);
+
+        List<Session> sessions = new ArrayList<>(sessionCount);
+        List<Queue<String>> received = new ArrayList<>(sessionCount);
+        AtomicInteger overlappingSends = new AtomicInteger();
+
+        for (int i = 0; i < sessionCount; i++) {
+            Queue<String> payloads = new ConcurrentLinkedQueue<>();
+            AtomicInteger inFlight = new AtomicInteger();
+
+            Session session = new Session(BenchmarkSupport.socket(String.valueOf(i), message -> {
+                if (inFlight.incrementAndGet() > 1) overlappingSends.incrementAndGet();
+                payloads.add(((TextMessage) message).getPayload());
+                Thread.onSpinWait();
+                inFlight.decrementAndGet();
+            }), GatewayConstant.Encoding.JSON, GatewayConstant.Compression.NONE,
+                    new ReplayBuffer(gatewayConfig.getReplayBufferSize(), gatewayConfig.getReplayBufferBytes(),
+                            new AtomicLong()));
+            session.setUserId(i + 1);
+
+            sessionWriter.start(session);
+            sessions.add(session);
+            received.add(payloads);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(producers);
+        long startedAt = System.nanoTime();
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+
+            threads.add(Thread.ofPlatform().name("producer-" + p).start(() -> {
+                try {
+                    start.await();
+
+                    for (int index = 0; index < frames; index++) {
+                        // one frame per index shared by every session, like a channel dispatch
+                        EventFrame frame = new EventFrame(GatewayConstant.Opcode.DISPATCH.ordinal(),
+                                Map.of("producer", producer, "index", index),
+                                GatewayConstant.Event.MESSAGE_CREATE.getValue());
+
+                        for (Session session : sessions) {
+                            sessionWriter.send(session, frame);
+                        }
+                    }
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add("producer " + producer + " failed: " + e);
+                    }
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (Session session : sessions) {
+            sessionWriter.stop(session);
+        }
+        for (Session session : sessions) {
+            session.getWriterDone().await();
+        }
+
+        long elapsed = System.nanoTime() - startedAt;
+        sessionWriter.shutdown();
+
+        for (int i = 0; i < sessionCount; i++) {
+            verify(i, new ArrayList<>(received.get(i)));
+        }
+
+        if (overlappingSends.get() > 0) failures.add(overlappingSends.get() + " sends overlapped on one socket");
+
+        BenchmarkSupport.report("sequence", Map.of(
+                "sessions", sessionCount,
+                "producers", producers,
+                "framesPerProducer", frames,
+                "framesPerSecond", BenchmarkSupport.round((double) sessionCount * producers * frames * 1e9 / elapsed),
+                "failures", failures.size()));
+    }
+
+    private void verify(int session, List<String> payloads) {
+        if (payloads.size() != producers * frames) {
+            failures.add("session " + session + " received " + payloads.size() + " of " + producers * frames);
+        }
+
+        Map<Integer, Integer> lastIndex = new HashMap<>();
+        long previousSequence = -1;
+
+        for (String payload : payloads) {
+            long sequence = Long.parseLong(find(SEQUENCE, payload));
+            int producer = Integer.parseInt(find(PRODUCER, payload));
+            int index = Integer.parseInt(find(INDEX, payload));
+
+            if (previousSequence >= 0 && sequence != previousSequence + 1) {
+                failures.add("session " + session + " got sequence " + sequence + " after " + previousSequence);
+            }
+            previousSequence = sequence;
+
+            Integer last = lastIndex.put(producer, index);
+            if (last != null && index <= last) {
+                failures.add("session " + session + " got index " + index + " of producer " + producer
+                        + " after " + last);
+            }
+        }
+    }
+
+    private static String find(Pattern pattern, String payload) {
+        Matcher matcher = pattern.matcher(payload);
+        if (!matcher.find()) throw new IllegalStateException("Unexpected frame " + payload);
+
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,71 @@
+package app.foxochat.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties("cache")
+@Getter
+@Setter
+public class CacheConfig {
+
+    private Spec defaults = new Spec(10000, 600000);
+
+    private Map<String, Spec> caches = new HashMap<>(Map.of(
+            "users", new Spec(50000, 600000),
+            "principals", new Spec(100000, 600000),
+            "channels", new Spec(20000, 600000),
+            "member", new Spec(100000, 600000),
+            "messages", new Spec(10000, 60000),
+            "media", new Spec(50000, 600000)
+    ));
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // caches that are not configured are still bounded
+        cacheManager.setCaffeine(builder(defaults));
+
+        caches.forEach((name, spec) -> cacheManager.registerCustomCache(name, builder(spec).build()));
+
+        return cacheManager;
+    }
+
+    private static Caffeine<Object, Object> builder(Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .recordStats();
+
+        if (spec.getExpireAfterWrite() > 0)
+            builder.expireAfterWrite(Duration.ofMillis(spec.getExpireAfterWrite()));
+
+        return builder;
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private long maximumSize;
+
+        private long expireAfterWrite;
+
+        public Spec() {
+        }
+
+        public Spec(long maximumSize, long expireAfterWrite) {
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+}
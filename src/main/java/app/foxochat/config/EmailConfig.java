@@ -26,6 +26,22 @@ public class EmailConfig {
 
     private String password;
 
+    private boolean starttls = true;
+
+    private long timeout = 10000;
+
+    private int workers = 2;
+
+    private int batchSize = 20;
+
+    private long pollInterval = 1000;
+
+    private int maxAttempts = 8;
+
+    private long retryBackoff = 5000;
+
+    private long lease = 60000;
+
     @Bean
     public JavaMailSender javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -37,8 +53,11 @@ public class EmailConfig {
 
         Properties props = mailSender.getJavaMailProperties();
         props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.auth", String.valueOf(username != null && !username.isBlank()));
+        props.put("mail.smtp.starttls.enable", String.valueOf(starttls));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(timeout));
+        props.put("mail.smtp.timeout", String.valueOf(timeout));
+        props.put("mail.smtp.writetimeout", String.valueOf(timeout));
         props.put("mail.debug", "false");
 
         return mailSender;
@@ -0,0 +1,47 @@
+package app.foxochat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Configuration
+@ConfigurationProperties("gateway")
+@Getter
+@Setter
+public class GatewayConfig {
+
+    private long outboundBufferSize = 1048576;
+
+    private long sendTimeLimit = 10000;
+
+    private int dispatchLanes = 16;
+
+    private int sessionShards = 0;
+
+    private boolean handshakeAuth = false;
+
+    private int identifyConcurrency = 32;
+
+    private int identifyQueueSize = 1024;
+
+    private long identifyQueueTimeout = 5000;
+
+    private long identifyRetryAfter = 5000;
+
+    private long resumeTimeout = 60000;
+
+    private int replayBufferSize = 256;
+
+    private long replayBufferBytes = 262144;
+
+    private int readyChunkSize = 100;
+
+    private long typingTimeout = 8000;
+
+    private String clusterBus = "memory";
+
+    private String nodeId = UUID.randomUUID().toString();
+}
@@ -12,4 +12,6 @@ import org.springframework.context.annotation.Configuration;
 public class JwtConfig {
 
     private String secret;
+
+    private long cacheSize = 100000;
 }
@@ -0,0 +1,19 @@
+package app.foxochat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties("otp")
+@Getter
+@Setter
+public class OTPConfig {
+
+    private String store = "postgres";
+
+    private long purgeInterval = 60000;
+
+    private int purgeBatchSize = 1000;
+}
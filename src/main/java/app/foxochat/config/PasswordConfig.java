@@ -0,0 +1,23 @@
+package app.foxochat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties("password")
+@Getter
+@Setter
+public class PasswordConfig {
+
+    private int cost = 10;
+
+    private int maxCost = 14;
+
+    private long targetLatency = 250;
+
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private int queueSize = 64;
+}
@@ -0,0 +1,19 @@
+package app.foxochat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties("presence")
+@Getter
+@Setter
+public class PresenceConfig {
+
+    private long flushInterval = 1000;
+
+    private long offlineDelay = 5000;
+
+    private int batchSize = 500;
+}
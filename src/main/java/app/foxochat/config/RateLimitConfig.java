@@ -0,0 +1,59 @@
+package app.foxochat.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties("rate-limit")
+@Getter
+@Setter
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+
+    private int capacity = 65536;
+
+    // peers allowed to set X-Forwarded-For, the docker network Traefik runs in by default
+    private List<String> trustedProxies = new ArrayList<>(List.of(
+            "127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "::1/128", "fc00::/7"
+    ));
+
+    private List<Rule> rules = new ArrayList<>(List.of(
+            new Rule("/auth/login", 10, 60000, 5, 300000),
+            new Rule("/auth/register", 5, 3600000, 0, 0),
+            new Rule("/auth/reset-password", 5, 3600000, 3, 3600000),
+            new Rule("/auth/reset-password/confirm", 10, 600000, 5, 600000),
+            new Rule("/auth/email/resend", 5, 600000, 0, 0)
+    ));
+
+    @Getter
+    @Setter
+    public static class Rule {
+
+        private String path;
+
+        private int ipLimit;
+
+        private long ipPeriod;
+
+        private int emailLimit;
+
+        private long emailPeriod;
+
+        public Rule() {
+        }
+
+        public Rule(String path, int ipLimit, long ipPeriod, int emailLimit, long emailPeriod) {
+            this.path = path;
+            this.ipLimit = ipLimit;
+            this.ipPeriod = ipPeriod;
+            this.emailLimit = emailLimit;
+            this.emailPeriod = emailPeriod;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package app.foxochat.config;
 
 import app.foxochat.handler.structure.EventHandler;
+import app.foxochat.interceptor.GatewayHandshakeInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -13,13 +14,17 @@ public class WebSocketConfig implements WebSocketConfigurer {
 
     private final EventHandler eventHandler;
 
-    public WebSocketConfig(EventHandler eventHandler) {
+    private final GatewayHandshakeInterceptor handshakeInterceptor;
+
+    public WebSocketConfig(EventHandler eventHandler, GatewayHandshakeInterceptor handshakeInterceptor) {
         this.eventHandler = eventHandler;
+        this.handshakeInterceptor = handshakeInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(@NonNull WebSocketHandlerRegistry registry) {
         registry.addHandler(eventHandler, "/")
+                .addInterceptors(handshakeInterceptor)
                 .setAllowedOrigins("*");
     }
 }
@@ -4,6 +4,8 @@ public class AttributeConstant {
 
     public static final String USER = "user";
 
+    public static final String PRINCIPAL = "principal";
+
     public static final String MEMBER = "member";
 
     public static final String CHANNEL = "channel";
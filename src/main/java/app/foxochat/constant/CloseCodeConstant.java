@@ -7,4 +7,12 @@ public class CloseCodeConstant {
     public static final CloseStatus UNAUTHORIZED = new CloseStatus(4001, "Unauthorized");
 
     public static final CloseStatus HEARTBEAT_TIMEOUT = new CloseStatus(4002, "Heartbeat timeout");
+
+    public static final CloseStatus SLOW_CONSUMER = new CloseStatus(4003, "Slow consumer");
+
+    public static final CloseStatus INVALID_ENCODING = new CloseStatus(4004, "Invalid encoding");
+
+    public static final CloseStatus INVALID_SESSION = new CloseStatus(4005, "Invalid session");
+
+    public static final CloseStatus IDENTIFY_THROTTLED = new CloseStatus(4006, "Identify throttled");
 }
@@ -44,7 +44,9 @@ public class ExceptionConstant {
         USER_UNAUTHORIZED("You need to authorize first"),
         ROUTE_NOT_FOUND("Route not found"),
         USER_CONTACT_ALREADY_EXIST("Contact already exist"),
-        USER_CONTACT_NOT_FOUND("Contact not found");
+        USER_CONTACT_NOT_FOUND("Contact not found"),
+        SERVER_BUSY("Server is busy, try again later"),
+        RATE_LIMIT_EXCEEDED("Too many requests, try again later");
 
         private final String message;
 
@@ -124,7 +126,8 @@ public class ExceptionConstant {
         RATE_LIMIT_EXCEEDED,
         EMPTY_BODY,
         VALIDATION_ERROR,
-        ROUTE_NOT_FOUND;
+        ROUTE_NOT_FOUND,
+        SERVER_BUSY;
 
         public int getValue() {
             return API_ERROR + this.ordinal();
@@ -4,7 +4,10 @@ public class GatewayConstant {
 
     public static final int HEARTBEAT_INTERVAL = 30000;
 
-    public static final int HEARTBEAT_TIMEOUT = 3;
+    // grace period on top of the interval before a silent session is closed
+    public static final int HEARTBEAT_TIMEOUT = 10000;
+
+    public static final String SESSION_ATTRIBUTE = "gateway.session";
 
     public enum Event {
         MESSAGE_CREATE("MESSAGE_CREATE"),
@@ -18,7 +21,10 @@ public class GatewayConstant {
         USER_UPDATE("USER_UPDATE"),
         CONTACT_ADD("CONTACT_ADD"),
         CONTACT_DELETE("CONTACT_DELETE"),
-        TYPING_START("TYPING_START");
+        TYPING_START("TYPING_START"),
+        RESUMED("RESUMED"),
+        READY("READY"),
+        READY_CHUNK("READY_CHUNK");
 
         private final String name;
 
@@ -31,11 +37,62 @@ public class GatewayConstant {
         }
     }
 
+    public enum Encoding {
+        JSON("json"),
+        CBOR("cbor");
+
+        private final String name;
+
+        Encoding(String name) {
+            this.name = name;
+        }
+
+        public static Encoding fromValue(String value) {
+            if (value == null) return JSON;
+
+            for (Encoding encoding : values()) {
+                if (encoding.name.equals(value)) return encoding;
+            }
+
+            return null;
+        }
+
+        public String getValue() {
+            return name;
+        }
+    }
+
+    public enum Compression {
+        NONE("none"),
+        ZLIB_STREAM("zlib-stream");
+
+        private final String name;
+
+        Compression(String name) {
+            this.name = name;
+        }
+
+        public static Compression fromValue(String value) {
+            if (value == null) return NONE;
+
+            for (Compression compression : values()) {
+                if (compression.name.equals(value)) return compression;
+            }
+
+            return null;
+        }
+
+        public String getValue() {
+            return name;
+        }
+    }
+
     public enum Opcode {
         DISPATCH, // 0
         IDENTIFY, // 1
         HELLO, // 2
         HEARTBEAT, // 3
         HEARTBEAT_ACK, // 4
+        RESUME, // 5
     }
 }
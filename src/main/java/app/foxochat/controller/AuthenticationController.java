@@ -5,13 +5,17 @@ import app.foxochat.constant.AttributeConstant;
 import app.foxochat.dto.api.request.*;
 import app.foxochat.dto.api.response.OkDTO;
 import app.foxochat.dto.api.response.TokenDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
+import app.foxochat.exception.api.ServerBusyException;
 import app.foxochat.exception.otp.NeedToWaitBeforeResendException;
 import app.foxochat.exception.otp.OTPExpiredException;
 import app.foxochat.exception.otp.OTPsInvalidException;
 import app.foxochat.exception.user.UserCredentialsDuplicateException;
 import app.foxochat.exception.user.UserCredentialsIsInvalidException;
+import app.foxochat.exception.user.UserUnauthorizedException;
 import app.foxochat.model.User;
 import app.foxochat.service.AuthenticationService;
+import app.foxochat.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -26,14 +30,18 @@ public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
 
-    public AuthenticationController(AuthenticationService authenticationService) {
+    private final UserService userService;
+
+    public AuthenticationController(AuthenticationService authenticationService, UserService userService) {
         this.authenticationService = authenticationService;
+        this.userService = userService;
     }
 
     @Operation(summary = "Register")
     @SecurityRequirements
     @PostMapping("/register")
-    public TokenDTO register(@RequestBody UserRegisterDTO body) throws UserCredentialsDuplicateException {
+    public TokenDTO register(@RequestBody UserRegisterDTO body)
+            throws UserCredentialsDuplicateException, ServerBusyException {
         String username = body.getUsername();
         String email = body.getEmail();
         String password = body.getPassword();
@@ -45,7 +53,7 @@ public class AuthenticationController {
     @Operation(summary = "Login")
     @SecurityRequirements
     @PostMapping("/login")
-    public TokenDTO login(@RequestBody UserLoginDTO body) throws UserCredentialsIsInvalidException {
+    public TokenDTO login(@RequestBody UserLoginDTO body) throws UserCredentialsIsInvalidException, ServerBusyException {
         String email = body.getEmail();
         String password = body.getPassword();
 
@@ -57,9 +65,11 @@ public class AuthenticationController {
     @Operation(summary = "Verify email")
     @PostMapping("/email/verify")
     public OkDTO emailVerify(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody OTPDTO body
-    ) throws OTPsInvalidException, OTPExpiredException {
+    ) throws OTPsInvalidException, OTPExpiredException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         authenticationService.verifyEmail(user, body.getOTP());
 
         return new OkDTO(true);
@@ -68,9 +78,11 @@ public class AuthenticationController {
     @Operation(summary = "Resend email")
     @PostMapping("/email/resend")
     public OkDTO resendEmail(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.ACCESS_TOKEN) String accessToken
-    ) throws OTPsInvalidException, NeedToWaitBeforeResendException {
+    ) throws OTPsInvalidException, NeedToWaitBeforeResendException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         authenticationService.resendEmail(user, accessToken);
 
         return new OkDTO(true);
@@ -89,7 +101,7 @@ public class AuthenticationController {
     @SecurityRequirements
     @PostMapping("/reset-password/confirm")
     public OkDTO confirmResetPassword(@RequestBody UserResetPasswordConfirmDTO body)
-            throws OTPExpiredException, OTPsInvalidException, UserCredentialsIsInvalidException {
+            throws OTPExpiredException, OTPsInvalidException, UserCredentialsIsInvalidException, ServerBusyException {
         authenticationService.confirmResetPassword(body);
 
         return new OkDTO(true);
@@ -6,6 +6,7 @@ import app.foxochat.constant.ChannelConstant;
 import app.foxochat.dto.api.request.*;
 import app.foxochat.dto.api.response.*;
 import app.foxochat.dto.internal.MediaPresignedURLDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
 import app.foxochat.exception.channel.ChannelAlreadyExistException;
 import app.foxochat.exception.channel.ChannelNotFoundException;
 import app.foxochat.exception.media.MediaCannotBeEmptyException;
@@ -16,11 +17,13 @@ import app.foxochat.exception.member.MissingPermissionsException;
 import app.foxochat.exception.message.MessageCannotBeEmpty;
 import app.foxochat.exception.message.MessageNotFoundException;
 import app.foxochat.exception.user.UserNotFoundException;
+import app.foxochat.exception.user.UserUnauthorizedException;
 import app.foxochat.model.*;
 import app.foxochat.service.ChannelService;
 import app.foxochat.service.MediaService;
 import app.foxochat.service.MemberService;
 import app.foxochat.service.MessageService;
+import app.foxochat.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -44,20 +47,25 @@ public class ChannelController {
 
     private final MediaService mediaService;
 
+    private final UserService userService;
+
     public ChannelController(ChannelService channelService, MessageService messageService, MemberService memberService,
-                             MediaService mediaService) {
+                             MediaService mediaService, UserService userService) {
         this.channelService = channelService;
         this.messageService = messageService;
         this.memberService = memberService;
         this.mediaService = mediaService;
+        this.userService = userService;
     }
 
     @Operation(summary = "Create channel")
     @PostMapping("/")
     public ChannelDTO create(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody ChannelCreateDTO body
-    ) throws ChannelAlreadyExistException, UserNotFoundException {
+    ) throws ChannelAlreadyExistException, UserNotFoundException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         Channel channel = channelService.add(user, 0, body);
 
         return new ChannelDTO(channel, null, null, null, null);
@@ -66,9 +74,11 @@ public class ChannelController {
     @Operation(summary = "Create DM channel")
     @PostMapping("/{partnerId}")
     public ChannelDTO createDM(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody ChannelCreateDTO body, @PathVariable long partnerId
-    ) throws ChannelAlreadyExistException, UserNotFoundException {
+    ) throws ChannelAlreadyExistException, UserNotFoundException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         Channel channel = channelService.add(user, partnerId, body);
 
         return new ChannelDTO(channel, null, null, null, null);
@@ -77,14 +87,14 @@ public class ChannelController {
     @Operation(summary = "Get channel by id")
     @GetMapping("/{channelId}")
     public ChannelDTO getById(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable long channelId
     ) {
         ChannelDTO dto = new ChannelDTO(channel, null, null, null, null);
 
         if (channel.getType() != ChannelConstant.Type.DM.getType()) {
-            User partnerUser = channel.getMembers().stream().filter(m -> m.getUser().getId() != user.getId())
+            User partnerUser = channel.getMembers().stream().filter(m -> m.getUser().getId() != principal.getId())
                     .findFirst().get().getUser();
             dto = new ChannelDTO(channel,
                     null,
@@ -99,14 +109,14 @@ public class ChannelController {
     @Operation(summary = "Get channel by name")
     @GetMapping("/@{name}")
     public ChannelDTO getByName(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @PathVariable String name
     ) throws ChannelNotFoundException {
         Channel channel = channelService.getByName(name);
         ChannelDTO dto = new ChannelDTO(channel, null, name, null, null);
 
         if (channel.getType() != ChannelConstant.Type.DM.getType()) {
-            User partnerUser = channel.getMembers().stream().filter(m -> m.getUser().getId() != user.getId())
+            User partnerUser = channel.getMembers().stream().filter(m -> m.getUser().getId() != principal.getId())
                     .findFirst().get().getUser();
             dto = new ChannelDTO(channel,
                     null,
@@ -153,10 +163,12 @@ public class ChannelController {
     @Operation(summary = "Delete channel")
     @DeleteMapping("/{channelId}")
     public OkDTO delete(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable long channelId
     ) throws Exception {
+        User user = userService.getByPrincipal(principal);
+
         channelService.delete(channel, user);
 
         return new OkDTO(true);
@@ -165,10 +177,12 @@ public class ChannelController {
     @Operation(summary = "Join channel")
     @PutMapping("/{channelId}/members/@me")
     public MemberDTO addMember(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable long channelId
     ) throws Exception {
+        User user = userService.getByPrincipal(principal);
+
         Member member = channelService.addMember(channel, user);
 
         return new MemberDTO(member, true);
@@ -177,10 +191,12 @@ public class ChannelController {
     @Operation(summary = "Leave channel")
     @DeleteMapping("/{channelId}/members/@me")
     public OkDTO removeMember(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable long channelId
     ) throws Exception {
+        User user = userService.getByPrincipal(principal);
+
         channelService.removeMember(channel, user);
 
         return new OkDTO(true);
@@ -189,13 +205,13 @@ public class ChannelController {
     @Operation(summary = "Get member")
     @GetMapping("/{channelId}/members/{memberId}")
     public MemberDTO getMember(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable long channelId,
             @PathVariable String memberId
     ) throws MemberInChannelNotFoundException {
         if (Objects.equals(memberId, "@me")) {
-            memberId = String.valueOf(user.getId());
+            memberId = String.valueOf(principal.getId());
         }
 
         Member member = memberService.getByChannelIdAndUserId(channel.getId(), Long.parseLong(memberId))
@@ -249,7 +265,7 @@ public class ChannelController {
     @Operation(summary = "Create message")
     @PostMapping("/{channelId}/messages")
     public OkDTO createMessage(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable long channelId,
             @RequestBody MessageCreateDTO body
@@ -258,6 +274,8 @@ public class ChannelController {
             throw new MessageCannotBeEmpty();
         }
 
+        User user = userService.getByPrincipal(principal);
+
         messageService.add(channel, user, body);
 
         return new OkDTO(true);
@@ -266,16 +284,19 @@ public class ChannelController {
     @Operation(summary = "Add attachments")
     @PutMapping("/{channelId}/attachments")
     public List<MediaUploadDTO> addAttachments(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestAttribute(value = AttributeConstant.CHANNEL) Channel channel,
             @PathVariable String channelId,
             @RequestBody List<AttachmentUploadDTO> attachments
     )
-            throws MissingPermissionsException, MediaCannotBeEmptyException, MemberInChannelNotFoundException {
+            throws MissingPermissionsException, MediaCannotBeEmptyException, MemberInChannelNotFoundException,
+            UserUnauthorizedException {
         if (attachments == null || attachments.isEmpty()) {
             throw new MediaCannotBeEmptyException();
         }
 
+        User user = userService.getByPrincipal(principal);
+
         return messageService.addAttachments(channel, user, attachments);
     }
 
@@ -8,6 +8,8 @@ import app.foxochat.dto.api.response.MediaUploadDTO;
 import app.foxochat.dto.api.response.OkDTO;
 import app.foxochat.dto.api.response.UserDTO;
 import app.foxochat.dto.internal.MediaPresignedURLDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
+import app.foxochat.exception.api.ServerBusyException;
 import app.foxochat.exception.media.MediaCannotBeEmptyException;
 import app.foxochat.exception.media.UnknownMediaException;
 import app.foxochat.exception.media.UploadFailedException;
@@ -17,6 +19,7 @@ import app.foxochat.exception.user.UserContactAlreadyExistException;
 import app.foxochat.exception.user.UserContactNotFoundException;
 import app.foxochat.exception.user.UserCredentialsIsInvalidException;
 import app.foxochat.exception.user.UserNotFoundException;
+import app.foxochat.exception.user.UserUnauthorizedException;
 import app.foxochat.model.Avatar;
 import app.foxochat.model.Channel;
 import app.foxochat.model.Message;
@@ -57,7 +60,11 @@ public class UserController {
 
     @Operation(summary = "Get me")
     @GetMapping("/@me")
-    public UserDTO getMe(@RequestAttribute(value = AttributeConstant.USER) User user) {
+    public UserDTO getMe(
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal
+    ) throws UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         List<Long> channels = memberService.getChannelsByUserId(user.getId())
                 .stream()
                 .map(Channel::getId)
@@ -91,8 +98,8 @@ public class UserController {
 
     @Operation(summary = "Get user channels")
     @GetMapping("/@me/channels")
-    public List<ChannelDTO> getChannels(@RequestAttribute(value = AttributeConstant.USER) User authenticatedUser) {
-        return memberService.getChannelsByUserId(authenticatedUser.getId())
+    public List<ChannelDTO> getChannels(@RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal) {
+        return memberService.getChannelsByUserId(principal.getId())
                 .stream()
                 .map(channel -> {
                     Message lastMessage = messageService.getLastByChannel(channel);
@@ -104,10 +111,10 @@ public class UserController {
     @Operation(summary = "Edit user")
     @PatchMapping("/@me")
     public UserDTO edit(
-            @RequestAttribute(value = AttributeConstant.USER) User authenticatedUser,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody UserEditDTO body
     ) throws Exception {
-        authenticatedUser = userService.update(authenticatedUser, body);
+        User authenticatedUser = userService.update(userService.getByPrincipal(principal), body);
 
         return new UserDTO(authenticatedUser, null, null, true, true, false);
     }
@@ -115,9 +122,11 @@ public class UserController {
     @Operation(summary = "Upload avatar")
     @PutMapping("/@me/avatar")
     public MediaUploadDTO uploadAvatar(
-            @RequestAttribute(value = AttributeConstant.USER) User authenticatedUser,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody AvatarUploadDTO avatar
-    ) throws UnknownMediaException, MediaCannotBeEmptyException, UploadFailedException {
+    ) throws UnknownMediaException, MediaCannotBeEmptyException, UploadFailedException, UserUnauthorizedException {
+        User authenticatedUser = userService.getByPrincipal(principal);
+
         MediaPresignedURLDTO data = mediaService.uploadAvatar(authenticatedUser, null, avatar);
 
         Avatar media;
@@ -133,18 +142,22 @@ public class UserController {
     @Operation(summary = "Upload banner")
     @PutMapping("/@me/banner")
     public List<MediaUploadDTO> uploadBanner(
-            @RequestAttribute(value = AttributeConstant.USER) User authenticatedUser,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody AttachmentUploadDTO attachment
-    ) throws MediaCannotBeEmptyException {
+    ) throws MediaCannotBeEmptyException, UserUnauthorizedException {
+        User authenticatedUser = userService.getByPrincipal(principal);
+
         return mediaService.uploadAttachments(authenticatedUser, List.of(attachment));
     }
 
     @Operation(summary = "Delete")
     @DeleteMapping("/@me")
     public OkDTO delete(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody UserDeleteDTO body
-    ) throws UserCredentialsIsInvalidException {
+    ) throws UserCredentialsIsInvalidException, ServerBusyException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         String password = body.getPassword();
 
         userService.requestDelete(user, password);
@@ -155,9 +168,11 @@ public class UserController {
     @Operation(summary = "Confirm delete")
     @PostMapping("/@me/delete-confirm")
     public OkDTO deleteConfirm(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @RequestBody OTPDTO body
-    ) throws OTPExpiredException, OTPsInvalidException {
+    ) throws OTPExpiredException, OTPsInvalidException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         userService.confirmDelete(user, body.getOTP());
 
         return new OkDTO(true);
@@ -166,9 +181,9 @@ public class UserController {
     @Operation(summary = "Get contacts")
     @GetMapping("/@me/contacts")
     public List<UserDTO> getContacts(
-            @RequestAttribute(value = AttributeConstant.USER) User authenticatedUser
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal
     ) throws UserNotFoundException {
-        User user = userService.getById(authenticatedUser.getId()).orElseThrow(UserNotFoundException::new);
+        User user = userService.getById(principal.getId()).orElseThrow(UserNotFoundException::new);
         return user.getContacts()
                 .stream()
                 .map(contact -> new UserDTO(contact.getContact(), null, null, false, false, false))
@@ -178,18 +193,22 @@ public class UserController {
     @Operation(summary = "Add contact")
     @PostMapping("/{id}")
     public UserDTO addContact(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @PathVariable long id
-    ) throws UserContactAlreadyExistException {
+    ) throws UserContactAlreadyExistException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         return new UserDTO(userService.addContact(user, id), null, null, false, false, false);
     }
 
     @Operation(summary = "Delete contact")
     @DeleteMapping("/{id}")
     public OkDTO deleteContact(
-            @RequestAttribute(value = AttributeConstant.USER) User user,
+            @RequestAttribute(value = AttributeConstant.PRINCIPAL) PrincipalDTO principal,
             @PathVariable long id
-    ) throws UserContactNotFoundException {
+    ) throws UserContactNotFoundException, UserUnauthorizedException {
+        User user = userService.getByPrincipal(principal);
+
         userService.deleteContact(user, id);
 
         return new OkDTO(true);
@@ -24,4 +24,11 @@ public class AvatarDTO {
         this.filename = avatar.getFilename();
         this.tumbhash = avatar.getTumbhash();
     }
+
+    public AvatarDTO(long id, String uuid, String filename, String tumbhash) {
+        this.id = id;
+        this.uuid = uuid;
+        this.filename = filename;
+        this.tumbhash = tumbhash;
+    }
 }
@@ -0,0 +1,44 @@
+package app.foxochat.dto.gateway;
+
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.handler.structure.GatewayCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Getter
+public class EventFrame {
+
+    private final int opcode;
+
+    private final Object data;
+
+    private final String type;
+
+    private final AtomicReferenceArray<byte[]> prefixes =
+            new AtomicReferenceArray<>(GatewayConstant.Encoding.values().length);
+
+    public EventFrame(int opcode, Object data, String type) {
+        this.opcode = opcode;
+        this.data = data;
+        this.type = type;
+    }
+
+    public byte[] render(GatewayCodec codec, GatewayConstant.Encoding encoding, int sequence)
+            throws JsonProcessingException {
+        return codec.encodeFrame(encoding, encodePrefix(codec, encoding), sequence);
+    }
+
+    public byte[] encodePrefix(GatewayCodec codec, GatewayConstant.Encoding encoding)
+            throws JsonProcessingException {
+        byte[] prefix = prefixes.get(encoding.ordinal());
+
+        if (prefix == null) {
+            prefix = codec.encodeFramePrefix(encoding, opcode, data, type);
+            prefixes.set(encoding.ordinal(), prefix);
+        }
+
+        return prefix;
+    }
+}
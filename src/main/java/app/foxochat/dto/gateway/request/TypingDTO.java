@@ -0,0 +1,11 @@
+package app.foxochat.dto.gateway.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class TypingDTO {
+
+    private long channelId;
+}
@@ -0,0 +1,59 @@
+package app.foxochat.dto.gateway.response;
+
+import app.foxochat.dto.api.response.AvatarDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ReadyChannelDTO {
+
+    private long id;
+
+    private String displayName;
+
+    private String name;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AvatarDTO avatar;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AvatarDTO banner;
+
+    private int type;
+
+    private long flags;
+
+    private long createdAt;
+
+    private long permissions;
+
+    private long memberCount;
+
+    private long lastMessageId;
+
+    private long partnerId;
+
+    public ReadyChannelDTO(long id, String displayName, String name, int type, long flags, long createdAt,
+                           long permissions, Long memberCount, Long lastMessageId, Long partnerId,
+                           Long avatarId, String avatarUuid, String avatarFilename, String avatarTumbhash,
+                           Long bannerId, String bannerUuid, String bannerFilename, String bannerTumbhash) {
+        this.id = id;
+        this.displayName = displayName;
+        this.name = name;
+        this.type = type;
+        this.flags = flags;
+        this.createdAt = createdAt;
+        this.permissions = permissions;
+        this.memberCount = memberCount;
+        this.lastMessageId = lastMessageId != null ? lastMessageId : 0;
+        this.partnerId = partnerId != null ? partnerId : 0;
+        if (avatarId != null) {
+            this.avatar = new AvatarDTO(avatarId, avatarUuid, avatarFilename, avatarTumbhash);
+        }
+        if (bannerId != null) {
+            this.banner = new AvatarDTO(bannerId, bannerUuid, bannerFilename, bannerTumbhash);
+        }
+    }
+}
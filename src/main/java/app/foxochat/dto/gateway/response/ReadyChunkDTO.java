@@ -0,0 +1,26 @@
+package app.foxochat.dto.gateway.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ReadyChunkDTO {
+
+    private int chunkIndex;
+
+    private int chunkCount;
+
+    private List<ReadyChannelDTO> channels;
+
+    private List<ReadyUserDTO> users;
+
+    public ReadyChunkDTO(int chunkIndex, int chunkCount, List<ReadyChannelDTO> channels, List<ReadyUserDTO> users) {
+        this.chunkIndex = chunkIndex;
+        this.chunkCount = chunkCount;
+        this.channels = channels;
+        this.users = users;
+    }
+}
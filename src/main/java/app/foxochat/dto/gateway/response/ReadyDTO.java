@@ -0,0 +1,36 @@
+package app.foxochat.dto.gateway.response;
+
+import app.foxochat.dto.api.response.UserDTO;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ReadyDTO {
+
+    private UserDTO user;
+
+    private List<ReadyChannelDTO> channels;
+
+    private List<ReadyUserDTO> users;
+
+    private List<TypingStartDTO> typing;
+
+    private int chunkCount;
+
+    @JsonIgnore
+    private List<ReadyChunkDTO> chunks;
+
+    public ReadyDTO(UserDTO user, List<ReadyChannelDTO> channels, List<ReadyUserDTO> users,
+                    List<TypingStartDTO> typing, int chunkCount, List<ReadyChunkDTO> chunks) {
+        this.user = user;
+        this.channels = channels;
+        this.users = users;
+        this.typing = typing;
+        this.chunkCount = chunkCount;
+        this.chunks = chunks;
+    }
+}
@@ -0,0 +1,43 @@
+package app.foxochat.dto.gateway.response;
+
+import app.foxochat.dto.api.response.AvatarDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ReadyUserDTO {
+
+    private long id;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AvatarDTO avatar;
+
+    private String displayName;
+
+    private String username;
+
+    private int status;
+
+    private long statusUpdatedAt;
+
+    private long flags;
+
+    private int type;
+
+    public ReadyUserDTO(long id, String displayName, String username, int status, long statusUpdatedAt,
+                        long flags, int type, Long avatarId, String avatarUuid, String avatarFilename,
+                        String avatarTumbhash) {
+        this.id = id;
+        this.displayName = displayName;
+        this.username = username;
+        this.status = status;
+        this.statusUpdatedAt = statusUpdatedAt;
+        this.flags = flags;
+        this.type = type;
+        if (avatarId != null) {
+            this.avatar = new AvatarDTO(avatarId, avatarUuid, avatarFilename, avatarTumbhash);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package app.foxochat.dto.internal;
+
+import lombok.Getter;
+
+@Getter
+public class ChannelPartnerDTO {
+
+    private final long userId;
+
+    private final long partnerId;
+
+    public ChannelPartnerDTO(long userId, long partnerId) {
+        this.userId = userId;
+        this.partnerId = partnerId;
+    }
+}
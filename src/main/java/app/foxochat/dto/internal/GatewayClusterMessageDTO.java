@@ -0,0 +1,35 @@
+package app.foxochat.dto.internal;
+
+import app.foxochat.constant.GatewayConstant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class GatewayClusterMessageDTO {
+
+    private String nodeId;
+
+    private long key;
+
+    private long channelId;
+
+    private List<Long> userIds;
+
+    private GatewayConstant.Event event;
+
+    private Object data;
+
+    public GatewayClusterMessageDTO(String nodeId, GatewayDispatchDTO dispatch) {
+        this.nodeId = nodeId;
+        this.key = dispatch.getKey();
+        this.channelId = dispatch.getChannelId();
+        this.userIds = dispatch.getUserIds();
+        this.event = dispatch.getEvent();
+        this.data = dispatch.getData();
+    }
+}
@@ -0,0 +1,31 @@
+package app.foxochat.dto.internal;
+
+import app.foxochat.constant.GatewayConstant;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class GatewayDispatchDTO {
+
+    private long key;
+
+    private long channelId;
+
+    private List<Long> userIds;
+
+    private GatewayConstant.Event event;
+
+    private Object data;
+
+    public GatewayDispatchDTO(long key, long channelId, List<Long> userIds, GatewayConstant.Event event,
+                              Object data) {
+        this.key = key;
+        this.channelId = channelId;
+        this.userIds = userIds;
+        this.event = event;
+        this.data = data;
+    }
+}
@@ -0,0 +1,27 @@
+package app.foxochat.dto.internal;
+
+import app.foxochat.constant.UserConstant;
+import lombok.Getter;
+
+@Getter
+public class PrincipalDTO {
+
+    private final long id;
+
+    private final int tokenVersion;
+
+    private final long flags;
+
+    private final String username;
+
+    public PrincipalDTO(long id, int tokenVersion, long flags, String username) {
+        this.id = id;
+        this.tokenVersion = tokenVersion;
+        this.flags = flags;
+        this.username = username;
+    }
+
+    public boolean hasFlag(UserConstant.Flags flag) {
+        return (this.flags & flag.getBit()) != 0;
+    }
+}
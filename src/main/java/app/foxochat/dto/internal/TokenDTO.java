@@ -0,0 +1,19 @@
+package app.foxochat.dto.internal;
+
+import lombok.Getter;
+
+@Getter
+public class TokenDTO {
+
+    private final long userId;
+
+    private final long tokenVersion;
+
+    private final long expiresAt;
+
+    public TokenDTO(long userId, long tokenVersion, long expiresAt) {
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+}
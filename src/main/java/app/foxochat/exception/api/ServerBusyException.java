@@ -0,0 +1,18 @@
+package app.foxochat.exception.api;
+
+import app.foxochat.constant.ExceptionConstant;
+import app.foxochat.exception.BaseException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServerBusyException extends BaseException {
+
+    public ServerBusyException() {
+        super(
+                ExceptionConstant.Messages.SERVER_BUSY.getValue(),
+                ServerBusyException.class.getAnnotation(ResponseStatus.class).value(),
+                ExceptionConstant.API.SERVER_BUSY.getValue()
+        );
+    }
+}
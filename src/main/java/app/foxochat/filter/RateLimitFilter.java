@@ -0,0 +1,311 @@
+package app.foxochat.filter;
+
+import app.foxochat.config.RateLimitConfig;
+import app.foxochat.constant.ExceptionConstant;
+import app.foxochat.dto.api.response.ExceptionDTO;
+import app.foxochat.util.RateLimiter;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class RateLimitFilter implements Filter {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final long IP_SEED = 0x4950;
+
+    private static final long EMAIL_SEED = 0x454D41494CL;
+
+    // auth bodies are a few hundred bytes, anything larger is left for the controller to reject
+    private static final int MAX_BODY_SIZE = 4096;
+
+    private final RateLimitConfig rateLimitConfig;
+
+    private final ObjectMapper objectMapper;
+
+    private final RateLimiter rateLimiter;
+
+    private final Map<String, RateLimitConfig.Rule> rules = new HashMap<>();
+
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    private final List<Subnet> trustedProxies = new ArrayList<>();
+
+    public RateLimitFilter(RateLimitConfig rateLimitConfig, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = new RateLimiter(rateLimitConfig.getCapacity());
+
+        for (String proxy : rateLimitConfig.getTrustedProxies()) {
+            trustedProxies.add(Subnet.parse(proxy));
+        }
+
+        for (RateLimitConfig.Rule rule : rateLimitConfig.getRules()) {
+            rules.put(rule.getPath(), rule);
+
+            for (String key : new String[]{"ip", "email"}) {
+                rejected.put(rule.getPath() + key, Counter.builder("http.rate_limit.rejected")
+                        .description("Requests rejected by the rate limiter")
+                        .tag("path", rule.getPath())
+                        .tag("key", key)
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    @Override
+    public void doFilter(
+            ServletRequest request,
+            ServletResponse response,
+            FilterChain chain
+    ) throws IOException, ServletException {
+        if (!rateLimitConfig.isEnabled()
+                || !(request instanceof HttpServletRequest httpRequest)
+                || !(response instanceof HttpServletResponse httpResponse)
+                || !HttpMethod.POST.matches(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitConfig.Rule rule = rules.get(httpRequest.getRequestURI());
+
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (rule.getIpLimit() > 0) {
+            long key = RateLimiter.hash(IP_SEED, rule.getPath() + getClientAddress(httpRequest));
+            long retryAfter = rateLimiter.acquire(key, rule.getIpLimit(), rule.getIpPeriod(), now);
+
+            if (retryAfter > 0) {
+                reject(httpResponse, rule, "ip", retryAfter);
+                return;
+            }
+        }
+
+        long contentLength = httpRequest.getContentLengthLong();
+
+        if (rule.getEmailLimit() > 0 && contentLength > 0 && contentLength <= MAX_BODY_SIZE) {
+            CachedBodyRequest cachedRequest = new CachedBodyRequest(httpRequest);
+            String email = readEmail(cachedRequest.body);
+
+            if (email != null) {
+                long key = RateLimiter.hash(EMAIL_SEED, rule.getPath() + email);
+                long retryAfter = rateLimiter.acquire(key, rule.getEmailLimit(), rule.getEmailPeriod(), now);
+
+                if (retryAfter > 0) {
+                    reject(httpResponse, rule, "email", retryAfter);
+                    return;
+                }
+            }
+
+            request = cachedRequest;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    // walks X-Forwarded-For from the nearest hop and stops at the first address not owned by a trusted proxy,
+    // entries further left are written by the client and cannot be trusted
+    private String getClientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+
+        if (!isTrustedProxy(address)) return address;
+
+        Enumeration<String> headers = request.getHeaders(FORWARDED_FOR);
+        List<String> hops = new ArrayList<>();
+        while (headers.hasMoreElements()) {
+            for (String hop : headers.nextElement().split(",")) {
+                hop = hop.trim();
+                if (!hop.isEmpty()) hops.add(hop);
+            }
+        }
+
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            String hop = hops.get(i);
+
+            if (Subnet.toAddress(hop) == null) break;
+
+            address = hop;
+            if (!isTrustedProxy(hop)) break;
+        }
+
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        InetAddress inetAddress = Subnet.toAddress(address);
+
+        if (inetAddress == null) return false;
+
+        for (Subnet subnet : trustedProxies) {
+            if (subnet.contains(inetAddress)) return true;
+        }
+
+        return false;
+    }
+
+    private String readEmail(byte[] body) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("email".equals(field) && value == JsonToken.VALUE_STRING)
+                    return parser.getText().trim().toLowerCase(Locale.ROOT);
+
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read email for rate limiting", e);
+        }
+
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, RateLimitConfig.Rule rule, String key, long retryAfter)
+            throws IOException {
+        rejected.get(rule.getPath() + key).increment();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfter + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ExceptionDTO(false,
+                ExceptionConstant.API.RATE_LIMIT_EXCEEDED.getValue(),
+                ExceptionConstant.Messages.RATE_LIMIT_EXCEEDED.getValue()));
+    }
+
+    private record Subnet(byte[] network, int prefix) {
+
+        private static Subnet parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            InetAddress address = toAddress(slash == -1 ? cidr : cidr.substring(0, slash));
+
+            if (address == null) throw new IllegalArgumentException("Invalid trusted proxy: " + cidr);
+
+            byte[] network = address.getAddress();
+            int prefix = slash == -1 ? network.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+
+            return new Subnet(network, prefix);
+        }
+
+        // only IP literals, a hostname here would trigger a DNS lookup per request
+        private static InetAddress toAddress(String value) {
+            if (value.isEmpty()) return null;
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (Character.digit(c, 16) == -1 && c != '.' && c != ':') return null;
+            }
+
+            try {
+                return InetAddress.getByName(value);
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        private boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+
+            if (bytes.length != network.length) return false;
+
+            int full = prefix / 8;
+            for (int i = 0; i < full; i++) {
+                if (bytes[i] != network[i]) return false;
+            }
+
+            int rest = prefix % 8;
+            if (rest == 0) return true;
+
+            int mask = 0xFF << (8 - rest);
+            return (bytes[full] & mask) == (network[full] & mask);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream stream = new ByteArrayInputStream(body);
+
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return stream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // the body is already buffered, everything is available at once
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return stream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return stream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
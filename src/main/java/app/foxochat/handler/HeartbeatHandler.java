@@ -2,27 +2,27 @@ package app.foxochat.handler;
 
 import app.foxochat.constant.CloseCodeConstant;
 import app.foxochat.constant.GatewayConstant;
-import app.foxochat.dto.gateway.EventDTO;
 import app.foxochat.dto.gateway.response.HeartbeatACKDTO;
 import app.foxochat.handler.structure.BaseHandler;
+import app.foxochat.handler.structure.HeartbeatMonitor;
+import app.foxochat.handler.structure.SessionWriter;
 import app.foxochat.model.Session;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
-public class HeartbeatHandler implements BaseHandler {
+public class HeartbeatHandler implements BaseHandler<Void> {
 
-    private final ObjectMapper objectMapper;
+    private final SessionWriter sessionWriter;
 
-    public HeartbeatHandler(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    private final HeartbeatMonitor heartbeatMonitor;
+
+    public HeartbeatHandler(SessionWriter sessionWriter, HeartbeatMonitor heartbeatMonitor) {
+        this.sessionWriter = sessionWriter;
+        this.heartbeatMonitor = heartbeatMonitor;
     }
 
     @Override
@@ -30,19 +30,25 @@ public class HeartbeatHandler implements BaseHandler {
         return GatewayConstant.Opcode.HEARTBEAT.ordinal();
     }
 
+    @Override
+    public Class<Void> getPayloadType() {
+        return Void.class;
+    }
+
     @Override
     public void handle(
-            WebSocketSession session,
-            ConcurrentHashMap<String, Session> sessions,
-            EventDTO payload
+            Session userSession,
+            Void payload
     ) throws IOException {
-        Session userSession = sessions.get(session.getId());
 
-        if (!userSession.isAuthenticated()) session.close(CloseCodeConstant.UNAUTHORIZED);
+        if (!userSession.isAuthenticated()) {
+            userSession.getWebSocketSession().close(CloseCodeConstant.UNAUTHORIZED);
+            return;
+        }
 
-        userSession.setLastPingTimestamp(System.currentTimeMillis());
+        heartbeatMonitor.touch(userSession);
 
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(new HeartbeatACKDTO())));
-        log.debug("Got heartbeat from session ({})", session.getId());
+        sessionWriter.send(userSession, new HeartbeatACKDTO());
+        log.debug("Got heartbeat from session ({})", userSession.getWebSocketSession().getId());
     }
 }
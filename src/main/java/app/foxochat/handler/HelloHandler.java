@@ -1,37 +1,60 @@
 package app.foxochat.handler;
 
 import app.foxochat.constant.GatewayConstant;
-import app.foxochat.constant.UserConstant;
-import app.foxochat.dto.gateway.EventDTO;
+import app.foxochat.dto.gateway.request.IdentifyDTO;
 import app.foxochat.dto.gateway.response.HelloDTO;
+import app.foxochat.dto.gateway.response.ReadyChannelDTO;
+import app.foxochat.dto.gateway.response.ReadyChunkDTO;
+import app.foxochat.dto.gateway.response.ReadyDTO;
 import app.foxochat.handler.structure.BaseHandler;
+import app.foxochat.handler.structure.HeartbeatMonitor;
+import app.foxochat.handler.structure.IdentifyLimiter;
+import app.foxochat.handler.structure.SessionRegistry;
+import app.foxochat.handler.structure.SessionWriter;
 import app.foxochat.model.Session;
+import app.foxochat.model.User;
 import app.foxochat.service.AuthenticationService;
-import app.foxochat.service.UserService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import app.foxochat.service.MemberService;
+import app.foxochat.service.PresenceService;
+import app.foxochat.service.ReadyService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Component
-public class HelloHandler implements BaseHandler {
+public class HelloHandler implements BaseHandler<IdentifyDTO> {
 
     private final AuthenticationService authenticationService;
 
-    private final ObjectMapper objectMapper;
+    private final PresenceService presenceService;
 
-    private final UserService userService;
+    private final MemberService memberService;
 
-    public HelloHandler(AuthenticationService authenticationService, ObjectMapper objectMapper,
-                        UserService userService) {
+    private final SessionRegistry sessionRegistry;
+
+    private final SessionWriter sessionWriter;
+
+    private final HeartbeatMonitor heartbeatMonitor;
+
+    private final ReadyService readyService;
+
+    private final IdentifyLimiter identifyLimiter;
+
+    public HelloHandler(AuthenticationService authenticationService, PresenceService presenceService,
+                        MemberService memberService, SessionRegistry sessionRegistry, SessionWriter sessionWriter,
+                        HeartbeatMonitor heartbeatMonitor, ReadyService readyService,
+                        IdentifyLimiter identifyLimiter) {
         this.authenticationService = authenticationService;
-        this.objectMapper = objectMapper;
-        this.userService = userService;
+        this.presenceService = presenceService;
+        this.memberService = memberService;
+        this.sessionRegistry = sessionRegistry;
+        this.sessionWriter = sessionWriter;
+        this.heartbeatMonitor = heartbeatMonitor;
+        this.readyService = readyService;
+        this.identifyLimiter = identifyLimiter;
     }
 
     @Override
@@ -39,22 +62,55 @@ public class HelloHandler implements BaseHandler {
         return GatewayConstant.Opcode.IDENTIFY.ordinal();
     }
 
+    @Override
+    public Class<IdentifyDTO> getPayloadType() {
+        return IdentifyDTO.class;
+    }
+
     @Override
     public void handle(
-            WebSocketSession session,
-            ConcurrentHashMap<String, Session> sessions,
-            EventDTO payload
+            Session userSession,
+            IdentifyDTO payload
     ) throws Exception {
-        @SuppressWarnings("unchecked")
-        String accessToken = ((Map<String, String>) payload.getD()).get("token");
+        // sessions authenticated during the handshake or already waiting for a slot are identified once
+        if (!userSession.beginIdentify()) return;
+
+        identifyLimiter.execute(userSession,
+                () -> identify(userSession, authenticationService.getUser(payload.getToken(), true, false)));
+    }
+
+    public void identify(Session userSession, User user) throws Exception {
+        // the connection may have closed while the identify was queued for a slot
+        if (isGone(userSession)) return;
+
+        long userId = user.getId();
+
+        synchronized (userSession) {
+            if (isGone(userSession)) return;
+
+            userSession.setUserId(userId);
+            userSession.setSessionId(UUID.randomUUID().toString());
+            heartbeatMonitor.touch(userSession);
+            sessionRegistry.register(userSession);
 
-        long userId = authenticationService.getUser(accessToken, true, false).getId();
-        Session userSession = sessions.get(session.getId());
-        userSession.setUserId(userId);
-        userSession.setLastPingTimestamp(System.currentTimeMillis());
+            sessionWriter.send(userSession, new HelloDTO(userSession.getSessionId()));
+            presenceService.connect(userId);
+        }
+
+        if (userSession.isReleased()) return;
+
+        List<ReadyChannelDTO> channels = memberService.getReadyChannelsByUserId(userId);
+        sessionRegistry.subscribe(userSession, channels.stream().map(ReadyChannelDTO::getId).toList());
+
+        ReadyDTO ready = readyService.getReady(user, channels);
+        sessionWriter.dispatch(userSession, GatewayConstant.Event.READY, ready);
+        for (ReadyChunkDTO chunk : ready.getChunks()) {
+            sessionWriter.dispatch(userSession, GatewayConstant.Event.READY_CHUNK, chunk);
+        }
+        log.debug("Authenticated session ({}) with user id {}", userSession.getWebSocketSession().getId(), userId);
+    }
 
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(new HelloDTO())));
-        userService.setStatus(userId, UserConstant.Status.ONLINE.getStatus());
-        log.debug("Authenticated session ({}) with user id {}", session.getId(), userId);
+    private boolean isGone(Session userSession) {
+        return userSession.isReleased() || !userSession.getWebSocketSession().isOpen();
     }
 }
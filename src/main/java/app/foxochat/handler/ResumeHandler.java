@@ -0,0 +1,91 @@
+package app.foxochat.handler;
+
+import app.foxochat.constant.CloseCodeConstant;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.request.ResumeDTO;
+import app.foxochat.handler.structure.BaseHandler;
+import app.foxochat.handler.structure.HeartbeatMonitor;
+import app.foxochat.handler.structure.ResumeRegistry;
+import app.foxochat.handler.structure.SessionRegistry;
+import app.foxochat.handler.structure.SessionWriter;
+import app.foxochat.model.Session;
+import app.foxochat.service.AuthenticationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class ResumeHandler implements BaseHandler<ResumeDTO> {
+
+    private final AuthenticationService authenticationService;
+
+    private final SessionRegistry sessionRegistry;
+
+    private final ResumeRegistry resumeRegistry;
+
+    private final SessionWriter sessionWriter;
+
+    private final HeartbeatMonitor heartbeatMonitor;
+
+    public ResumeHandler(AuthenticationService authenticationService, SessionRegistry sessionRegistry,
+                         ResumeRegistry resumeRegistry, SessionWriter sessionWriter,
+                         HeartbeatMonitor heartbeatMonitor) {
+        this.authenticationService = authenticationService;
+        this.sessionRegistry = sessionRegistry;
+        this.resumeRegistry = resumeRegistry;
+        this.sessionWriter = sessionWriter;
+        this.heartbeatMonitor = heartbeatMonitor;
+    }
+
+    @Override
+    public int getOpcode() {
+        return GatewayConstant.Opcode.RESUME.ordinal();
+    }
+
+    @Override
+    public Class<ResumeDTO> getPayloadType() {
+        return ResumeDTO.class;
+    }
+
+    @Override
+    public void handle(
+            Session userSession,
+            ResumeDTO payload
+    ) throws Exception {
+        // a session that identified, resumed or is waiting to identify cannot take over another one
+        if (!userSession.beginIdentify()) {
+            userSession.getWebSocketSession().close(CloseCodeConstant.INVALID_SESSION);
+            return;
+        }
+
+        String sessionId = payload.getSessionId();
+
+        long userId = authenticationService.getPrincipal(payload.getToken(), true).getId();
+        Session previous = resumeRegistry.resume(sessionId, userId);
+
+        if (previous == null) {
+            userSession.getWebSocketSession().close(CloseCodeConstant.INVALID_SESSION);
+            return;
+        }
+
+        synchronized (userSession) {
+            // the new connection may have dropped meanwhile, the parked session is kept for another attempt
+            if (userSession.isReleased() || !userSession.getWebSocketSession().isOpen()) {
+                resumeRegistry.park(previous);
+                return;
+            }
+
+            userSession.setUserId(userId);
+            userSession.setSessionId(sessionId);
+            userSession.setReplayBuffer(previous.getReplayBuffer());
+            heartbeatMonitor.touch(userSession);
+
+            // queued ahead of any live frame, the writer replays once the previous writer has drained
+            sessionWriter.resume(userSession, previous, payload.getSeq());
+            sessionRegistry.replace(previous, userSession);
+            sessionWriter.stop(previous);
+        }
+
+        log.debug("Resuming session {} of user {} from sequence {}", sessionId, userId, payload.getSeq());
+    }
+}
@@ -2,37 +2,34 @@ package app.foxochat.handler;
 
 import app.foxochat.constant.CloseCodeConstant;
 import app.foxochat.constant.GatewayConstant;
-import app.foxochat.dto.gateway.EventDTO;
+import app.foxochat.dto.gateway.request.TypingDTO;
 import app.foxochat.dto.gateway.response.TypingStartDTO;
 import app.foxochat.handler.structure.BaseHandler;
-import app.foxochat.model.Member;
+import app.foxochat.handler.structure.ChannelSubscriptionRegistry;
 import app.foxochat.model.Session;
-import app.foxochat.service.ChannelService;
 import app.foxochat.service.GatewayService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import app.foxochat.service.TypingService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
-import org.springframework.web.socket.WebSocketSession;
 
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
-public class TypingStartHandler implements BaseHandler {
+public class TypingStartHandler implements BaseHandler<TypingDTO> {
 
     private final GatewayService gatewayService;
 
-    private final ObjectMapper objectMapper;
+    private final TypingService typingService;
 
-    private final ChannelService channelService;
+    private final ChannelSubscriptionRegistry subscriptionRegistry;
 
-    public TypingStartHandler(@Lazy GatewayService gatewayService, ObjectMapper objectMapper,
-                              ChannelService channelService) {
+    public TypingStartHandler(@Lazy GatewayService gatewayService, TypingService typingService,
+                              ChannelSubscriptionRegistry subscriptionRegistry) {
         this.gatewayService = gatewayService;
-        this.objectMapper = objectMapper;
-        this.channelService = channelService;
+        this.typingService = typingService;
+        this.subscriptionRegistry = subscriptionRegistry;
     }
 
     @Override
@@ -40,23 +37,31 @@ public class TypingStartHandler implements BaseHandler {
         return GatewayConstant.Opcode.DISPATCH.ordinal();
     }
 
+    @Override
+    public Class<TypingDTO> getPayloadType() {
+        return TypingDTO.class;
+    }
+
     @Override
     public void handle(
-            WebSocketSession session,
-            ConcurrentHashMap<String, Session> sessions,
-            EventDTO payload
+            Session userSession,
+            TypingDTO payload
     ) throws Exception {
-        TypingStartDTO data = objectMapper.convertValue(payload.getD(), TypingStartDTO.class);
-        long channelId = data.getD().get("channelId");
-        Session userSession = sessions.get(session.getId());
+        long channelId = payload.getChannelId();
+
+        if (!userSession.isAuthenticated()) {
+            userSession.getWebSocketSession().close(CloseCodeConstant.UNAUTHORIZED);
+            return;
+        }
 
-        if (!userSession.isAuthenticated()) session.close(CloseCodeConstant.UNAUTHORIZED);
+        long userId = userSession.getUserId();
+        if (!subscriptionRegistry.isSubscribed(userId, channelId)) return;
 
-        List<Long> recipients = channelService.getById(channelId).getMembers().stream().map(Member::getId).toList();
+        // clients repeat TYPING_START on every keystroke, only the first one in the window is fanned out
+        if (!typingService.start(userId, channelId)) return;
 
-        gatewayService.sendMessageToSpecificSessions(recipients,
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new TypingStartDTO(channelId, userSession.getUserId(), System.currentTimeMillis()),
-                GatewayConstant.Event.TYPING_START.getValue());
+        gatewayService.dispatchToChannel(channelId, List.of(),
+                GatewayConstant.Event.TYPING_START,
+                new TypingStartDTO(channelId, userId, System.currentTimeMillis()));
     }
 }
@@ -0,0 +1,130 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.util.LongHashSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ChannelSubscriptionRegistry {
+
+    private static final long[] NONE = new long[0];
+
+    // map entries are changed through compute, the sets themselves are guarded by their own monitor for readers
+    private final ConcurrentHashMap<Long, LongHashSet> channelUsers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, LongHashSet> userChannels = new ConcurrentHashMap<>();
+
+    public ChannelSubscriptionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("gateway.subscriptions.channels", channelUsers, ConcurrentHashMap::size)
+                .description("Channels with at least one connected member")
+                .register(meterRegistry);
+    }
+
+    public void subscribe(long userId, Collection<Long> channelIds) {
+        userChannels.compute(userId, (id, channels) -> {
+            if (channels == null) channels = new LongHashSet(channelIds.size());
+
+            for (long channelId : channelIds) {
+                add(channels, channelId);
+                addUser(channelId, userId);
+            }
+
+            return channels;
+        });
+    }
+
+    public void subscribe(long userId, long channelId) {
+        // only users connected to this node are tracked
+        userChannels.computeIfPresent(userId, (id, channels) -> {
+            add(channels, channelId);
+            addUser(channelId, userId);
+            return channels;
+        });
+    }
+
+    public void unsubscribe(long userId, long channelId) {
+        userChannels.computeIfPresent(userId, (id, channels) -> {
+            remove(channels, channelId);
+            removeUser(channelId, userId);
+            return channels;
+        });
+    }
+
+    public void unsubscribeAll(long userId) {
+        LongHashSet channels = userChannels.remove(userId);
+
+        if (channels == null) return;
+
+        for (long channelId : snapshot(channels)) {
+            removeUser(channelId, userId);
+        }
+    }
+
+    public void removeChannel(long channelId) {
+        LongHashSet users = channelUsers.remove(channelId);
+
+        if (users == null) return;
+
+        for (long userId : snapshot(users)) {
+            userChannels.computeIfPresent(userId, (id, channels) -> {
+                remove(channels, channelId);
+                return channels;
+            });
+        }
+    }
+
+    public boolean isSubscribed(long userId, long channelId) {
+        LongHashSet channels = userChannels.get(userId);
+
+        if (channels == null) return false;
+
+        synchronized (channels) {
+            return channels.contains(channelId);
+        }
+    }
+
+    public long[] getUserIds(long channelId) {
+        LongHashSet users = channelUsers.get(channelId);
+
+        return users != null ? snapshot(users) : NONE;
+    }
+
+    private void addUser(long channelId, long userId) {
+        channelUsers.compute(channelId, (id, users) -> {
+            if (users == null) users = new LongHashSet();
+            add(users, userId);
+            return users;
+        });
+    }
+
+    private void removeUser(long channelId, long userId) {
+        channelUsers.computeIfPresent(channelId, (id, users) -> {
+            synchronized (users) {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            }
+        });
+    }
+
+    private static void add(LongHashSet set, long value) {
+        synchronized (set) {
+            set.add(value);
+        }
+    }
+
+    private static void remove(LongHashSet set, long value) {
+        synchronized (set) {
+            set.remove(value);
+        }
+    }
+
+    private static long[] snapshot(LongHashSet set) {
+        synchronized (set) {
+            return set.toArray();
+        }
+    }
+}
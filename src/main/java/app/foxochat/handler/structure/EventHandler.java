@@ -1,72 +1,99 @@
 package app.foxochat.handler.structure;
 
+import app.foxochat.constant.AttributeConstant;
 import app.foxochat.constant.CloseCodeConstant;
 import app.foxochat.constant.ExceptionConstant;
 import app.foxochat.constant.GatewayConstant;
-import app.foxochat.constant.UserConstant;
 import app.foxochat.dto.gateway.EventDTO;
 import app.foxochat.exception.user.UserUnauthorizedException;
+import app.foxochat.handler.HelloHandler;
 import app.foxochat.model.Session;
-import app.foxochat.service.UserService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.Getter;
+import app.foxochat.model.User;
+import app.foxochat.service.PresenceService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
 
 @Slf4j
 @Component
-public class EventHandler extends TextWebSocketHandler {
+public class EventHandler extends AbstractWebSocketHandler {
 
     private final EventHandlerRegistry handlerRegistry;
 
-    private final ObjectMapper objectMapper;
+    private final IntFunction<Class<?>> payloadTypes;
 
-    @Getter
-    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final GatewayCodec gatewayCodec;
 
-    private final UserService userService;
+    private final SessionRegistry sessionRegistry;
 
-    public EventHandler(EventHandlerRegistry handlerRegistry, ObjectMapper objectMapper, UserService userService) {
-        this.handlerRegistry = handlerRegistry;
-        this.objectMapper = objectMapper;
-        this.userService = userService;
+    private final PresenceService presenceService;
 
-        ScheduledExecutorService executor = Executors.newScheduledThreadPool(1, Thread.ofVirtual().factory());
+    private final SessionWriter sessionWriter;
 
-        Runnable task = () -> sessions.values().forEach(session -> {
-            long lastPingTimestamp = session.getLastPingTimestamp();
+    private final HeartbeatMonitor heartbeatMonitor;
 
-            long timeout = (GatewayConstant.HEARTBEAT_INTERVAL + GatewayConstant.HEARTBEAT_TIMEOUT);
+    private final ResumeRegistry resumeRegistry;
 
-            if (lastPingTimestamp < (System.currentTimeMillis() - timeout)) {
-                try {
-                    session.getWebSocketSession().close(CloseCodeConstant.HEARTBEAT_TIMEOUT);
-                    log.debug("Session closed due to heartbeat timeout: {}", session.getWebSocketSession().getId());
-                } catch (IOException e) {
-                    log.error("Error closing session: {}", session.getWebSocketSession().getId(), e);
-                    throw new RuntimeException(e);
-                }
-            }
-        });
+    private final GatewayMetrics gatewayMetrics;
+
+    private final IdentifyLimiter identifyLimiter;
+
+    private final HelloHandler helloHandler;
 
-        executor.scheduleAtFixedRate(task, 0, 30, TimeUnit.SECONDS);
+    public EventHandler(EventHandlerRegistry handlerRegistry, GatewayCodec gatewayCodec, SessionRegistry sessionRegistry,
+                        PresenceService presenceService, SessionWriter sessionWriter, HeartbeatMonitor heartbeatMonitor,
+                        ResumeRegistry resumeRegistry, GatewayMetrics gatewayMetrics, IdentifyLimiter identifyLimiter,
+                        HelloHandler helloHandler) {
+        this.handlerRegistry = handlerRegistry;
+        this.payloadTypes = handlerRegistry::getPayloadType;
+        this.gatewayCodec = gatewayCodec;
+        this.sessionRegistry = sessionRegistry;
+        this.presenceService = presenceService;
+        this.sessionWriter = sessionWriter;
+        this.heartbeatMonitor = heartbeatMonitor;
+        this.resumeRegistry = resumeRegistry;
+        this.gatewayMetrics = gatewayMetrics;
+        this.identifyLimiter = identifyLimiter;
+        this.helloHandler = helloHandler;
     }
 
     @Override
-    public void afterConnectionEstablished(@NonNull WebSocketSession session) {
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
         log.debug("Connection for session ({}) established", session.getId());
-        sessions.put(session.getId(), new Session(session));
+        gatewayMetrics.recordOpened();
+        MultiValueMap<String, String> params = session.getUri() != null
+                ? UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams()
+                : null;
+
+        GatewayConstant.Encoding encoding = GatewayConstant.Encoding
+                .fromValue(params != null ? params.getFirst("encoding") : null);
+        GatewayConstant.Compression compression = GatewayConstant.Compression
+                .fromValue(params != null ? params.getFirst("compress") : null);
+
+        if (encoding == null || compression == null) {
+            session.close(CloseCodeConstant.INVALID_ENCODING);
+            return;
+        }
+
+        Session userSession = new Session(session, encoding, compression, resumeRegistry.createBuffer());
+
+        session.getAttributes().put(GatewayConstant.SESSION_ATTRIBUTE, userSession);
+        sessionWriter.start(userSession);
+        heartbeatMonitor.touch(userSession);
+
+        if (session.getAttributes().get(AttributeConstant.USER) instanceof User user && userSession.beginIdentify()) {
+            identifyLimiter.execute(userSession, () -> helloHandler.identify(userSession, user));
+        }
     }
 
     @Override
@@ -75,35 +102,101 @@ public class EventHandler extends TextWebSocketHandler {
                 session.getId(),
                 status.getReason(),
                 status.getCode());
+        gatewayMetrics.recordClosed(status.getCode());
+
+        Session userSession = (Session) session.getAttributes().remove(GatewayConstant.SESSION_ATTRIBUTE);
+
+        if (userSession == null) return;
 
-        Session userSession = sessions.get(session.getId());
+        // an identify still holding the session either registered it already or will see it released
+        boolean authenticated;
+        synchronized (userSession) {
+            userSession.setReleased(true);
+            authenticated = userSession.isAuthenticated();
+        }
+
+        heartbeatMonitor.remove(userSession);
+
+        if (!authenticated) {
+            sessionWriter.discard(userSession);
+            return;
+        }
 
-        if (userSession.isAuthenticated()) {
-            userService.setStatus(userSession.getUserId(), UserConstant.Status.OFFLINE.getStatus());
+        if (isResumable(status)) {
+            // the writer stays up to keep numbering frames into the replay buffer
+            sessionWriter.close(userSession);
+            resumeRegistry.park(userSession);
+        } else {
+            release(userSession);
         }
+    }
+
+    public void release(Session session) {
+        sessionRegistry.unregister(session);
+        sessionWriter.discard(session);
+        presenceService.disconnect(session.getUserId());
+    }
 
-        sessions.remove(session.getId());
+    private boolean isResumable(CloseStatus status) {
+        // clients that close normally or failed to resume have to identify again
+        return status.getCode() != CloseStatus.NORMAL.getCode()
+                && status.getCode() != CloseCodeConstant.INVALID_SESSION.getCode();
     }
 
     @Override
     protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message) throws Exception {
-        try {
-            EventDTO payload = objectMapper.readValue(message.getPayload(), EventDTO.class);
-            int opcode = payload.getOp();
+        handleMessage(session, message.getPayload().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected void handleBinaryMessage(@NonNull WebSocketSession session, @NonNull BinaryMessage message)
+            throws Exception {
+        byte[] bytes = new byte[message.getPayloadLength()];
+        message.getPayload().get(bytes);
+
+        handleMessage(session, bytes);
+    }
+
+    private void handleMessage(WebSocketSession session, byte[] message) throws Exception {
+        Session userSession = (Session) session.getAttributes().get(GatewayConstant.SESSION_ATTRIBUTE);
+
+        if (userSession == null) return;
+
+        long startedAt = System.nanoTime();
+        GatewayFrameEvent frameEvent = new GatewayFrameEvent();
+        frameEvent.begin();
+        int opcode = -1;
 
-            BaseHandler handler = handlerRegistry.getHandler(opcode);
+        try {
+            EventDTO payload = gatewayCodec.decode(userSession.getEncoding(), message, payloadTypes);
+            opcode = payload.getOp();
+            BaseHandler<?> handler = handlerRegistry.getHandler(opcode);
 
             if (handler != null) {
-                handler.handle(session, sessions, payload);
-                log.debug("Handling {} event with opcode {}", payload.getT(), payload.getOp());
+                handle(handler, userSession, payload.getD());
+                log.debug("Handling event with opcode {}", opcode);
             }
         } catch (UserUnauthorizedException e) {
-            log.error(ExceptionConstant.Messages.SERVER_EXCEPTION.getValue(), null, null, message);
+            log.error(ExceptionConstant.Messages.SERVER_EXCEPTION.getValue(), null, null, message.length);
 
             session.close(CloseCodeConstant.UNAUTHORIZED);
         } catch (Exception e) {
-            log.error(ExceptionConstant.Messages.SERVER_EXCEPTION.getValue(), null, null, message);
+            log.error(ExceptionConstant.Messages.SERVER_EXCEPTION.getValue(), null, null, message.length);
             log.error(ExceptionConstant.Messages.SERVER_EXCEPTION_STACKTRACE.getValue(), e);
+        } finally {
+            gatewayMetrics.recordInbound(opcode, System.nanoTime() - startedAt);
+
+            frameEvent.end();
+            if (frameEvent.shouldCommit()) {
+                frameEvent.setOpcode(opcode);
+                frameEvent.setSize(message.length);
+                frameEvent.setUserId(userSession.getUserId());
+                frameEvent.commit();
+            }
         }
     }
+
+    private <T> void handle(BaseHandler<T> handler, Session session, Object payload) throws Exception {
+        handler.handle(session, handler.getPayloadType().cast(payload));
+    }
 }
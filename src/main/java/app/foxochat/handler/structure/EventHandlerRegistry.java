@@ -1,23 +1,28 @@
 package app.foxochat.handler.structure;
 
+import app.foxochat.constant.GatewayConstant;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Component
 public class EventHandlerRegistry {
 
-    private final Map<Integer, BaseHandler> handlers = new HashMap<>();
+    private final BaseHandler<?>[] handlers = new BaseHandler<?>[GatewayConstant.Opcode.values().length];
 
-    public EventHandlerRegistry(List<BaseHandler> handlers) {
-        for (BaseHandler handler : handlers) {
-            this.handlers.put(handler.getOpcode(), handler);
+    public EventHandlerRegistry(List<BaseHandler<?>> handlers) {
+        for (BaseHandler<?> handler : handlers) {
+            this.handlers[handler.getOpcode()] = handler;
         }
     }
 
-    public BaseHandler getHandler(int event) {
-        return handlers.get(event);
+    public BaseHandler<?> getHandler(int opcode) {
+        return opcode >= 0 && opcode < handlers.length ? handlers[opcode] : null;
+    }
+
+    public Class<?> getPayloadType(int opcode) {
+        BaseHandler<?> handler = getHandler(opcode);
+
+        return handler != null ? handler.getPayloadType() : null;
     }
 }
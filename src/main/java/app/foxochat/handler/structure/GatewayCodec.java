@@ -0,0 +1,171 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.EventDTO;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+@Component
+public class GatewayCodec {
+
+    private static final int CBOR_MAP_OF_FOUR = 0xA4;
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper cborMapper;
+
+    private final GatewayMetrics gatewayMetrics;
+
+    public GatewayCodec(ObjectMapper objectMapper, GatewayMetrics gatewayMetrics) {
+        this.jsonMapper = objectMapper;
+        this.gatewayMetrics = gatewayMetrics;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    public ObjectMapper getMapper(GatewayConstant.Encoding encoding) {
+        return encoding == GatewayConstant.Encoding.CBOR ? cborMapper : jsonMapper;
+    }
+
+    public byte[] encode(GatewayConstant.Encoding encoding, Object payload) throws JsonProcessingException {
+        long startedAt = System.nanoTime();
+        byte[] encoded = getMapper(encoding).writeValueAsBytes(payload);
+
+        gatewayMetrics.recordEncode(encoding, System.nanoTime() - startedAt);
+        return encoded;
+    }
+
+    public EventDTO decode(GatewayConstant.Encoding encoding, byte[] payload, IntFunction<Class<?>> payloadTypes)
+            throws IOException {
+        ObjectMapper mapper = getMapper(encoding);
+
+        try (JsonParser parser = mapper.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new JsonParseException(parser, "Expected an object");
+
+            int opcode = -1;
+            Class<?> type = null;
+            TokenBuffer pending = null;
+            Object data = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if ("op".equals(field)) {
+                    opcode = parser.getIntValue();
+                    type = payloadTypes.apply(opcode);
+
+                    // heartbeats carry nothing worth reading, the rest of the frame is never touched
+                    if (type == Void.class) break;
+
+                    if (pending != null && type != null) data = mapper.readValue(pending.asParser(mapper), type);
+                } else if ("d".equals(field)) {
+                    if (opcode < 0) {
+                        // "d" before "op" is valid JSON, keep the tokens until the type is known
+                        pending = new TokenBuffer(parser);
+                        pending.copyCurrentStructure(parser);
+                    } else if (type != null && type != Void.class) {
+                        data = mapper.readValue(parser, type);
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            return new EventDTO(opcode, data, 0, null);
+        }
+    }
+
+    public byte[] encodeFramePrefix(GatewayConstant.Encoding encoding, int opcode, Object data, String type)
+            throws JsonProcessingException {
+        long startedAt = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        if (encoding == GatewayConstant.Encoding.CBOR) {
+            // concatenated CBOR items form a valid map body, so only the header is written by hand
+            out.write(CBOR_MAP_OF_FOUR);
+            out.writeBytes(cborMapper.writeValueAsBytes("op"));
+            out.writeBytes(cborMapper.writeValueAsBytes(opcode));
+            out.writeBytes(cborMapper.writeValueAsBytes("d"));
+            out.writeBytes(cborMapper.writeValueAsBytes(data));
+            out.writeBytes(cborMapper.writeValueAsBytes("t"));
+            out.writeBytes(cborMapper.writeValueAsBytes(type));
+            out.writeBytes(cborMapper.writeValueAsBytes("s"));
+        } else {
+            out.writeBytes(("{\"op\":" + opcode + ",\"d\":").getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(jsonMapper.writeValueAsBytes(data));
+            out.writeBytes((",\"t\":" + jsonMapper.writeValueAsString(type) + ",\"s\":")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        gatewayMetrics.recordEncode(encoding, System.nanoTime() - startedAt);
+        return out.toByteArray();
+    }
+
+    public byte[] encodeFrame(GatewayConstant.Encoding encoding, byte[] prefix, int sequence) {
+        return encoding == GatewayConstant.Encoding.CBOR
+                ? appendCborSequence(prefix, sequence)
+                : appendJsonSequence(prefix, sequence);
+    }
+
+    private byte[] appendJsonSequence(byte[] prefix, int sequence) {
+        int digits = sequence < 0 ? 1 : 0;
+        for (long value = Math.abs((long) sequence); ; value /= 10) {
+            digits++;
+            if (value < 10) break;
+        }
+
+        byte[] frame = new byte[prefix.length + digits + 1];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+
+        int position = prefix.length + digits;
+        frame[position] = '}';
+
+        long value = Math.abs((long) sequence);
+        do {
+            frame[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+
+        if (sequence < 0) frame[--position] = '-';
+
+        return frame;
+    }
+
+    private byte[] appendCborSequence(byte[] prefix, int sequence) {
+        // major type 0 (unsigned) or 1 (negative, encoded as -1 - n), followed by the shortest argument
+        int major = sequence < 0 ? 0x20 : 0x00;
+        long argument = sequence < 0 ? -1L - sequence : sequence;
+        int length = argument < 24 ? 0 : argument < 0x100 ? 1 : argument < 0x10000 ? 2 : 4;
+
+        byte[] frame = new byte[prefix.length + 1 + length];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+
+        int position = prefix.length;
+        switch (length) {
+            case 0 -> frame[position] = (byte) (major | argument);
+            case 1 -> frame[position] = (byte) (major | 24);
+            case 2 -> frame[position] = (byte) (major | 25);
+            default -> frame[position] = (byte) (major | 26);
+        }
+
+        for (int i = length; i > 0; i--) {
+            frame[position + i] = (byte) argument;
+            argument >>>= 8;
+        }
+
+        return frame;
+    }
+}
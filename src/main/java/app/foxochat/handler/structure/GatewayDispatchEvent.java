@@ -0,0 +1,23 @@
+package app.foxochat.handler.structure;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("app.foxochat.GatewayDispatch")
+@Label("Gateway Dispatch")
+@Category({"FoxoChat", "Gateway"})
+@Setter
+public class GatewayDispatchEvent extends Event {
+
+    @Label("Event")
+    private String type;
+
+    @Label("Recipients")
+    private int recipients;
+
+    @Label("Sessions")
+    private int sessions;
+}
@@ -0,0 +1,119 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.internal.GatewayClusterMessageDTO;
+import app.foxochat.dto.internal.GatewayDispatchDTO;
+import app.foxochat.service.ClusterBusService;
+import app.foxochat.service.GatewayService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Component
+public class GatewayDispatcher {
+
+    private final GatewayService gatewayService;
+
+    private final ChannelSubscriptionRegistry subscriptionRegistry;
+
+    private final ClusterBusService clusterBusService;
+
+    private final String nodeId;
+
+    private final ExecutorService[] lanes;
+
+    public GatewayDispatcher(GatewayService gatewayService, ChannelSubscriptionRegistry subscriptionRegistry,
+                             ClusterBusService clusterBusService, GatewayConfig gatewayConfig) {
+        this.gatewayService = gatewayService;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.clusterBusService = clusterBusService;
+        this.nodeId = gatewayConfig.getNodeId();
+        this.lanes = new ExecutorService[gatewayConfig.getDispatchLanes()];
+
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("gateway-dispatch-" + i).factory());
+        }
+
+        clusterBusService.subscribe(this::onClusterMessage);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDispatch(GatewayDispatchDTO dispatch) {
+        laneOf(dispatch.getKey()).execute(() -> deliver(dispatch));
+    }
+
+    public void onClusterMessage(GatewayClusterMessageDTO message) {
+        // this node already delivered its own events to its sessions
+        if (nodeId.equals(message.getNodeId())) return;
+
+        laneOf(message.getKey()).execute(() -> deliverLocally(message));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private void deliver(GatewayDispatchDTO dispatch) {
+        GatewayClusterMessageDTO message = new GatewayClusterMessageDTO(nodeId, dispatch);
+
+        deliverLocally(message);
+
+        try {
+            clusterBusService.publish(message);
+        } catch (Exception e) {
+            log.error("Failed to publish {} event (key: {})", dispatch.getEvent().getValue(), dispatch.getKey(), e);
+        }
+    }
+
+    private void deliverLocally(GatewayClusterMessageDTO message) {
+        GatewayConstant.Event event = message.getEvent();
+        long channelId = message.getChannelId();
+
+        try {
+            // membership events carry the affected users, every node applies them to its own subscriptions
+            if (event == GatewayConstant.Event.CHANNEL_CREATE || event == GatewayConstant.Event.MEMBER_ADD) {
+                for (long userId : message.getUserIds()) {
+                    subscriptionRegistry.subscribe(userId, channelId);
+                }
+            }
+
+            List<Long> recipients = new ArrayList<>(message.getUserIds());
+
+            if (channelId > 0) {
+                for (long userId : subscriptionRegistry.getUserIds(channelId)) {
+                    recipients.add(userId);
+                }
+            }
+
+            gatewayService.sendMessageToSpecificSessions(recipients,
+                    GatewayConstant.Opcode.DISPATCH.ordinal(),
+                    message.getData(),
+                    event.getValue());
+
+            if (event == GatewayConstant.Event.MEMBER_REMOVE) {
+                for (long userId : message.getUserIds()) {
+                    subscriptionRegistry.unsubscribe(userId, channelId);
+                }
+            } else if (event == GatewayConstant.Event.CHANNEL_DELETE) {
+                subscriptionRegistry.removeChannel(channelId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to deliver {} event (key: {})", event.getValue(), message.getKey(), e);
+        }
+    }
+
+    private ExecutorService laneOf(long key) {
+        return lanes[Math.floorMod(Long.hashCode(key), lanes.length)];
+    }
+}
@@ -0,0 +1,25 @@
+package app.foxochat.handler.structure;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+@Name("app.foxochat.GatewayFrame")
+@Label("Gateway Frame")
+@Category({"FoxoChat", "Gateway"})
+@Setter
+public class GatewayFrameEvent extends Event {
+
+    @Label("Opcode")
+    private int opcode;
+
+    @Label("Size")
+    @DataAmount
+    private int size;
+
+    @Label("User Id")
+    private long userId;
+}
@@ -0,0 +1,149 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.constant.GatewayConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class GatewayMetrics {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter[] inboundFrames;
+
+    private final Counter unknownFrames;
+
+    private final Timer[] handlerDurations;
+
+    private final Map<String, Integer> eventIndexes = new HashMap<>();
+
+    private final Counter[] dispatchedEvents;
+
+    private final DistributionSummary[] fanouts;
+
+    private final Timer[] dispatchDurations;
+
+    private final Timer[] encodeDurations;
+
+    private final Timer sendDuration;
+
+    private final Counter opened;
+
+    private final ConcurrentHashMap<Integer, Counter> closed = new ConcurrentHashMap<>();
+
+    public GatewayMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        GatewayConstant.Opcode[] opcodes = GatewayConstant.Opcode.values();
+        this.inboundFrames = new Counter[opcodes.length];
+        this.handlerDurations = new Timer[opcodes.length];
+
+        for (GatewayConstant.Opcode opcode : opcodes) {
+            inboundFrames[opcode.ordinal()] = Counter.builder("gateway.frames.inbound")
+                    .description("Frames received from clients")
+                    .tag("op", opcode.name())
+                    .register(meterRegistry);
+            handlerDurations[opcode.ordinal()] = Timer.builder("gateway.handler.duration")
+                    .description("Time spent decoding and handling an inbound frame")
+                    .tag("op", opcode.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        this.unknownFrames = Counter.builder("gateway.frames.inbound")
+                .description("Frames received from clients")
+                .tag("op", UNKNOWN)
+                .register(meterRegistry);
+
+        GatewayConstant.Event[] events = GatewayConstant.Event.values();
+        this.dispatchedEvents = new Counter[events.length];
+        this.fanouts = new DistributionSummary[events.length];
+        this.dispatchDurations = new Timer[events.length];
+
+        for (GatewayConstant.Event event : events) {
+            eventIndexes.put(event.getValue(), event.ordinal());
+            dispatchedEvents[event.ordinal()] = Counter.builder("gateway.events.dispatched")
+                    .description("Events fanned out to local sessions")
+                    .tag("event", event.name())
+                    .register(meterRegistry);
+            fanouts[event.ordinal()] = DistributionSummary.builder("gateway.dispatch.fanout")
+                    .description("Local sessions an event was queued to")
+                    .tag("event", event.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            dispatchDurations[event.ordinal()] = Timer.builder("gateway.dispatch.duration")
+                    .description("Time spent encoding and queueing an event for local sessions")
+                    .tag("event", event.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        GatewayConstant.Encoding[] encodings = GatewayConstant.Encoding.values();
+        this.encodeDurations = new Timer[encodings.length];
+
+        for (GatewayConstant.Encoding encoding : encodings) {
+            encodeDurations[encoding.ordinal()] = Timer.builder("gateway.encode.duration")
+                    .description("Time spent serializing an outbound payload")
+                    .tag("encoding", encoding.getValue())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        this.sendDuration = Timer.builder("gateway.outbound.send")
+                .description("Time spent compressing and writing a message to the socket")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.opened = Counter.builder("gateway.connections.opened")
+                .description("WebSocket connections accepted")
+                .register(meterRegistry);
+    }
+
+    public void recordInbound(int opcode, long nanos) {
+        if (opcode < 0 || opcode >= inboundFrames.length) {
+            unknownFrames.increment();
+            return;
+        }
+
+        inboundFrames[opcode].increment();
+        handlerDurations[opcode].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDispatch(String type, int sessions, long nanos) {
+        Integer index = eventIndexes.get(type);
+
+        if (index == null) return;
+
+        dispatchedEvents[index].increment();
+        fanouts[index].record(sessions);
+        dispatchDurations[index].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEncode(GatewayConstant.Encoding encoding, long nanos) {
+        encodeDurations[encoding.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSend(long nanos) {
+        sendDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOpened() {
+        opened.increment();
+    }
+
+    public void recordClosed(int code) {
+        closed.computeIfAbsent(code, c -> Counter.builder("gateway.connections.closed")
+                .description("WebSocket connections closed, by close code")
+                .tag("code", String.valueOf(c))
+                .register(meterRegistry)).increment();
+    }
+}
@@ -0,0 +1,69 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.constant.CloseCodeConstant;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.model.Session;
+import app.foxochat.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+
+@Slf4j
+@Component
+public class HeartbeatMonitor {
+
+    private static final long TICK = 100;
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final TimingWheel<Session>[] wheels;
+
+    @SuppressWarnings("unchecked")
+    public HeartbeatMonitor(SessionRegistry sessionRegistry) {
+        this.wheels = new TimingWheel[sessionRegistry.getShardCount()];
+
+        for (int i = 0; i < wheels.length; i++) {
+            wheels[i] = new TimingWheel<>("gateway-heartbeat-" + i, TICK, WHEEL_SIZE, this::expire);
+        }
+    }
+
+    public void touch(Session session) {
+        long now = System.currentTimeMillis();
+
+        session.setLastPingTimestamp(now);
+        wheelOf(session).schedule(session,
+                now + GatewayConstant.HEARTBEAT_INTERVAL + GatewayConstant.HEARTBEAT_TIMEOUT);
+    }
+
+    public void remove(Session session) {
+        wheelOf(session).cancel(session);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (TimingWheel<Session> wheel : wheels) {
+            wheel.stop();
+        }
+    }
+
+    private TimingWheel<Session> wheelOf(Session session) {
+        // sessions are striped before they identify, so the identity hash is used rather than the user id
+        return wheels[System.identityHashCode(session) & (wheels.length - 1)];
+    }
+
+    private void expire(Session session) {
+        WebSocketSession wsSession = session.getWebSocketSession();
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                wsSession.close(CloseCodeConstant.HEARTBEAT_TIMEOUT);
+                log.debug("Session closed due to heartbeat timeout: {}", wsSession.getId());
+            } catch (IOException e) {
+                log.error("Error closing session: {}", wsSession.getId(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.CloseCodeConstant;
+import app.foxochat.exception.user.UserUnauthorizedException;
+import app.foxochat.model.Session;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class IdentifyLimiter {
+
+    private final GatewayConfig gatewayConfig;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Counter rejected;
+
+    public IdentifyLimiter(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this.gatewayConfig = gatewayConfig;
+        this.permits = new Semaphore(gatewayConfig.getIdentifyConcurrency(), true);
+
+        Gauge.builder("gateway.identify.waiting", waiting, AtomicInteger::get)
+                .description("Sessions queued for an IDENTIFY slot")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("gateway.identify.rejected")
+                .description("Sessions told to retry IDENTIFY later")
+                .register(meterRegistry);
+    }
+
+    public void execute(Session session, Task task) throws Exception {
+        if (permits.tryAcquire()) {
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+            return;
+        }
+
+        if (waiting.incrementAndGet() > gatewayConfig.getIdentifyQueueSize()) {
+            waiting.decrementAndGet();
+            reject(session);
+            return;
+        }
+
+        // inbound frames arrive on server I/O threads, so queued identifies wait on their own thread
+        Thread.ofVirtual().start(() -> {
+            try {
+                if (!permits.tryAcquire(gatewayConfig.getIdentifyQueueTimeout(), TimeUnit.MILLISECONDS)) {
+                    reject(session);
+                    return;
+                }
+
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            } catch (UserUnauthorizedException e) {
+                close(session.getWebSocketSession(), CloseCodeConstant.UNAUTHORIZED);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Failed to identify session ({})", session.getWebSocketSession().getId(), e);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        });
+    }
+
+    private void reject(Session session) {
+        rejected.increment();
+        close(session.getWebSocketSession(), CloseCodeConstant.IDENTIFY_THROTTLED
+                .withReason("Retry after " + gatewayConfig.getIdentifyRetryAfter() + "ms"));
+    }
+
+    private void close(WebSocketSession wsSession, CloseStatus status) {
+        try {
+            wsSession.close(status);
+        } catch (IOException e) {
+            log.debug("Error closing session ({}): {}", wsSession.getId(), e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task {
+
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,99 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.dto.gateway.EventFrame;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReplayBuffer {
+
+    private final int[] sequences;
+
+    private final EventFrame[] frames;
+
+    private final int[] sizes;
+
+    private final long maxBytes;
+
+    private final AtomicLong totalBytes;
+
+    private int head;
+
+    private int count;
+
+    private long bytes;
+
+    private long evictedUpTo = Long.MIN_VALUE;
+
+    public ReplayBuffer(int capacity, long maxBytes, AtomicLong totalBytes) {
+        this.sequences = new int[capacity];
+        this.frames = new EventFrame[capacity];
+        this.sizes = new int[capacity];
+        this.maxBytes = maxBytes;
+        this.totalBytes = totalBytes;
+    }
+
+    public synchronized void add(int sequence, EventFrame frame, int size) {
+        if (size > maxBytes || frames.length == 0) {
+            evictedUpTo = Math.max(evictedUpTo, sequence);
+            return;
+        }
+
+        while (count == frames.length || bytes + size > maxBytes) {
+            evictOldest();
+        }
+
+        int index = (head + count) % frames.length;
+        sequences[index] = sequence;
+        frames[index] = frame;
+        sizes[index] = size;
+        count++;
+
+        bytes += size;
+        totalBytes.addAndGet(size);
+    }
+
+    public synchronized List<Entry> since(int sequence) {
+        // everything after the client's last sequence must still be here, otherwise it has to re-identify
+        if (sequence < evictedUpTo) return null;
+
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = (head + i) % frames.length;
+
+            if (sequences[index] > sequence) entries.add(new Entry(sequences[index], frames[index]));
+        }
+
+        entries.sort(Comparator.comparingInt(Entry::getSequence));
+        return entries;
+    }
+
+    public synchronized void clear() {
+        while (count > 0) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        evictedUpTo = Math.max(evictedUpTo, sequences[head]);
+        bytes -= sizes[head];
+        totalBytes.addAndGet(-sizes[head]);
+
+        frames[head] = null;
+        head = (head + 1) % frames.length;
+        count--;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+
+        private final int sequence;
+
+        private final EventFrame frame;
+    }
+}
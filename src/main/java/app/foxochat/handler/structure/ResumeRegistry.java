@@ -0,0 +1,86 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.model.Session;
+import app.foxochat.util.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class ResumeRegistry {
+
+    private static final long TICK = 1000;
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final GatewayConfig gatewayConfig;
+
+    private final EventHandler eventHandler;
+
+    private final ConcurrentHashMap<String, Session> parked = new ConcurrentHashMap<>();
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private final TimingWheel<Session> wheel = new TimingWheel<>("gateway-resume", TICK, WHEEL_SIZE, this::expire);
+
+    public ResumeRegistry(GatewayConfig gatewayConfig, @Lazy EventHandler eventHandler, MeterRegistry meterRegistry) {
+        this.gatewayConfig = gatewayConfig;
+        this.eventHandler = eventHandler;
+
+        Gauge.builder("gateway.resume.parked", parked, ConcurrentHashMap::size)
+                .description("Disconnected sessions waiting to be resumed")
+                .register(meterRegistry);
+        Gauge.builder("gateway.resume.buffered", bufferedBytes, AtomicLong::get)
+                .description("Bytes held in session replay buffers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public ReplayBuffer createBuffer() {
+        return new ReplayBuffer(gatewayConfig.getReplayBufferSize(), gatewayConfig.getReplayBufferBytes(),
+                bufferedBytes);
+    }
+
+    public void park(Session session) {
+        parked.put(session.getSessionId(), session);
+        wheel.schedule(session, System.currentTimeMillis() + gatewayConfig.getResumeTimeout());
+        log.debug("Parked session {} of user {} for resume", session.getSessionId(), session.getUserId());
+    }
+
+    public Session resume(String sessionId, long userId) {
+        if (sessionId == null) return null;
+
+        Session session = parked.get(sessionId);
+
+        if (session == null || session.getUserId() != userId || !parked.remove(sessionId, session)) return null;
+
+        wheel.cancel(session);
+        return session;
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    private void expire(Session session) {
+        if (!parked.remove(session.getSessionId(), session)) return;
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                eventHandler.release(session);
+                log.debug("Resume window of session {} expired", session.getSessionId());
+            } catch (Exception e) {
+                log.error("Error releasing session {}", session.getSessionId(), e);
+            }
+        });
+    }
+}
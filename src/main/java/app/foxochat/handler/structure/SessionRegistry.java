@@ -0,0 +1,142 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.model.Session;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class SessionRegistry {
+
+    private static final Session[] NONE = new Session[0];
+
+    private final Shard[] shards;
+
+    private final int mask;
+
+    private final ChannelSubscriptionRegistry subscriptionRegistry;
+
+    private final LongAdder sessionCount = new LongAdder();
+
+    public SessionRegistry(GatewayConfig gatewayConfig, ChannelSubscriptionRegistry subscriptionRegistry,
+                           MeterRegistry meterRegistry) {
+        this.subscriptionRegistry = subscriptionRegistry;
+
+        int requested = gatewayConfig.getSessionShards() > 0
+                ? gatewayConfig.getSessionShards()
+                : Runtime.getRuntime().availableProcessors();
+        int count = Integer.highestOneBit(Math.max(1, requested * 2 - 1));
+
+        this.shards = new Shard[count];
+        this.mask = count - 1;
+
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+
+        Gauge.builder("gateway.sessions.users", this, SessionRegistry::getUserCount)
+                .description("Users with at least one identified session")
+                .register(meterRegistry);
+        Gauge.builder("gateway.sessions.authenticated", sessionCount, LongAdder::sum)
+                .description("Identified sessions connected to this node")
+                .register(meterRegistry);
+    }
+
+    public void register(Session session) {
+        shardOf(session.getUserId()).users.compute(session.getUserId(), (userId, sessions) -> {
+            // tracked before its channels are loaded, so membership changes in between are applied
+            subscriptionRegistry.subscribe(userId, List.of());
+            return track(sessions, append(sessions != null ? sessions : NONE, session));
+        });
+    }
+
+    public void subscribe(Session session, Collection<Long> channelIds) {
+        shardOf(session.getUserId()).users.computeIfPresent(session.getUserId(), (userId, sessions) -> {
+            subscriptionRegistry.subscribe(userId, channelIds);
+            return sessions;
+        });
+    }
+
+    public void replace(Session previous, Session session) {
+        shardOf(session.getUserId()).users.compute(session.getUserId(), (userId, sessions) ->
+                track(sessions, append(remove(sessions != null ? sessions : NONE, previous), session)));
+    }
+
+    public void unregister(Session session) {
+        shardOf(session.getUserId()).users.computeIfPresent(session.getUserId(), (userId, sessions) -> {
+            Session[] remaining = track(sessions, remove(sessions, session));
+
+            if (remaining.length > 0) return remaining;
+
+            subscriptionRegistry.unsubscribeAll(userId);
+            return null;
+        });
+    }
+
+    public Session[] getSessions(long userId) {
+        Session[] sessions = shardOf(userId).users.get(userId);
+
+        return sessions != null ? sessions : NONE;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int getUserCount() {
+        int count = 0;
+
+        for (Shard shard : shards) {
+            count += shard.users.size();
+        }
+
+        return count;
+    }
+
+    private Shard shardOf(long userId) {
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (hash ^ (hash >>> 32)) & mask];
+    }
+
+    private Session[] track(Session[] previous, Session[] sessions) {
+        sessionCount.add(sessions.length - (previous != null ? previous.length : 0));
+        return sessions;
+    }
+
+    private static Session[] append(Session[] sessions, Session session) {
+        for (Session existing : sessions) {
+            if (existing == session) return sessions;
+        }
+
+        Session[] result = Arrays.copyOf(sessions, sessions.length + 1);
+        result[sessions.length] = session;
+        return result;
+    }
+
+    private static Session[] remove(Session[] sessions, Session session) {
+        for (int i = 0; i < sessions.length; i++) {
+            if (sessions[i] != session) continue;
+
+            Session[] result = new Session[sessions.length - 1];
+            System.arraycopy(sessions, 0, result, 0, i);
+            System.arraycopy(sessions, i + 1, result, i, sessions.length - i - 1);
+            return result;
+        }
+
+        return sessions;
+    }
+
+    // each shard has its own table and size counters, so connect and close churn on one shard never
+    // invalidates the cache lines another core is reading for dispatch
+    private static final class Shard {
+
+        private final ConcurrentHashMap<Long, Session[]> users = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,374 @@
+package app.foxochat.handler.structure;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.CloseCodeConstant;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.EventFrame;
+import app.foxochat.model.Session;
+import app.foxochat.util.TimingWheel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+
+@Slf4j
+@Component
+public class SessionWriter {
+
+    private static final Object STOP = new Object();
+
+    private static final Object DISCARD = new Object();
+
+    private static final long TICK = 100;
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final GatewayConfig gatewayConfig;
+
+    private final GatewayCodec gatewayCodec;
+
+    private final GatewayMetrics gatewayMetrics;
+
+    private final AtomicLong queued = new AtomicLong();
+
+    private final AtomicLong buffered = new AtomicLong();
+
+    private final Counter dropped;
+
+    private final Counter evicted;
+
+    private final TimingWheel<Session> sendTimeouts;
+
+    public SessionWriter(GatewayConfig gatewayConfig, GatewayCodec gatewayCodec, GatewayMetrics gatewayMetrics,
+                         MeterRegistry meterRegistry) {
+        this.gatewayConfig = gatewayConfig;
+        this.gatewayCodec = gatewayCodec;
+        this.gatewayMetrics = gatewayMetrics;
+
+        Gauge.builder("gateway.outbound.queued", queued, AtomicLong::get)
+                .description("Messages waiting in session outbound queues")
+                .register(meterRegistry);
+        Gauge.builder("gateway.outbound.buffered", buffered, AtomicLong::get)
+                .description("Bytes waiting in session outbound queues")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("gateway.outbound.dropped")
+                .description("Messages dropped because their session was closed or evicted")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("gateway.outbound.evicted")
+                .description("Sessions closed for exceeding outbound buffer or send time limits")
+                .register(meterRegistry);
+
+        this.sendTimeouts = new TimingWheel<>("gateway-send-timeout", TICK, WHEEL_SIZE, this::checkSendTime);
+    }
+
+    public void start(Session session) {
+        Thread writer = Thread.ofVirtual()
+                .name("gateway-writer-" + session.getWebSocketSession().getId())
+                .unstarted(() -> drain(session));
+
+        session.setWriter(writer);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendTimeouts.stop();
+    }
+
+    public void close(Session session) {
+        session.setClosed(true);
+    }
+
+    public void stop(Session session) {
+        session.setClosed(true);
+        enqueue(session, STOP);
+    }
+
+    public void discard(Session session) {
+        session.setClosed(true);
+        enqueue(session, DISCARD);
+    }
+
+    public void send(Session session, Object payload) throws JsonProcessingException {
+        send(session, gatewayCodec.encode(session.getEncoding(), payload));
+    }
+
+    public void send(Session session, EventFrame frame) throws JsonProcessingException {
+        // a parked session keeps numbering frames into its replay buffer until it is resumed or released
+        if (reserve(session, frame.encodePrefix(gatewayCodec, session.getEncoding()).length)) enqueue(session, frame);
+    }
+
+    public void dispatch(Session session, GatewayConstant.Event event, Object data) throws JsonProcessingException {
+        send(session, new EventFrame(GatewayConstant.Opcode.DISPATCH.ordinal(), data, event.getValue()));
+    }
+
+    public void resume(Session session, Session previous, int since) {
+        enqueue(session, new Resume(previous, since));
+    }
+
+    private void send(Session session, byte[] message) {
+        if (session.isClosed()) {
+            dropped.increment();
+            return;
+        }
+
+        if (reserve(session, message.length)) enqueue(session, message);
+    }
+
+    private boolean reserve(Session session, int size) {
+        boolean closed = session.isClosed();
+
+        if (session.getBufferedBytes().addAndGet(size) > gatewayConfig.getOutboundBufferSize() && !closed) {
+            session.getBufferedBytes().addAndGet(-size);
+            dropped.increment();
+            evict(session, "outbound buffer size exceeded");
+            return false;
+        }
+
+        buffered.addAndGet(size);
+        return true;
+    }
+
+    private void enqueue(Session session, Object item) {
+        queued.incrementAndGet();
+        session.getOutbound().offer(item);
+
+        // the writer may have exited in between, whoever takes the item back out rolls it back
+        if (session.getWriterDone().getCount() == 0) {
+            if (session.getOutbound().remove(item)) drop(session, item);
+            return;
+        }
+
+        LockSupport.unpark(session.getWriter());
+    }
+
+    private void drain(Session session) {
+        Queue<Object> outbound = session.getOutbound();
+        boolean discard = false;
+
+        try {
+            while (true) {
+                Object item = outbound.poll();
+
+                if (item == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                queued.decrementAndGet();
+                if (item == STOP) break;
+                if (item == DISCARD) {
+                    discard = true;
+                    break;
+                }
+
+                write(session, item);
+            }
+
+            // frames that raced with the stop still get numbered so a resume can replay them
+            Object item;
+            while ((item = outbound.poll()) != null) {
+                queued.decrementAndGet();
+
+                if (item == STOP || item == DISCARD) continue;
+
+                if (discard) {
+                    release(session, item);
+                    dropped.increment();
+                } else {
+                    write(session, item);
+                }
+            }
+        } finally {
+            if (discard) session.getReplayBuffer().clear();
+            if (session.getDeflater() != null) session.getDeflater().end();
+
+            session.getWriterDone().countDown();
+
+            Object item;
+            while ((item = outbound.poll()) != null) {
+                drop(session, item);
+            }
+        }
+    }
+
+    private void drop(Session session, Object item) {
+        queued.decrementAndGet();
+        if (item == STOP || item == DISCARD) return;
+
+        release(session, item);
+        dropped.increment();
+    }
+
+    private void write(Session session, Object item) {
+        try {
+            if (item instanceof Resume resume) {
+                replay(session, resume);
+                return;
+            }
+
+            byte[] message;
+            if (item instanceof EventFrame frame) {
+                int sequence = session.getSequence();
+                session.increaseSequence();
+
+                byte[] prefix = frame.encodePrefix(gatewayCodec, session.getEncoding());
+                session.getReplayBuffer().add(sequence, frame, prefix.length);
+                message = gatewayCodec.encodeFrame(session.getEncoding(), prefix, sequence);
+            } else {
+                message = (byte[]) item;
+            }
+
+            release(session, item);
+            transmit(session, message);
+        } catch (JsonProcessingException e) {
+            release(session, item);
+            dropped.increment();
+            log.error("Failed to encode message for session ({})", session.getWebSocketSession().getId(), e);
+        }
+    }
+
+    private void replay(Session session, Resume resume) throws JsonProcessingException {
+        Session previous = resume.previous();
+
+        try {
+            // the previous writer still numbers frames that were queued before the handover
+            previous.getWriterDone().await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        session.setSequence(previous.getSequence());
+        List<ReplayBuffer.Entry> entries = session.getReplayBuffer().since(resume.since());
+
+        if (entries == null) {
+            close(session.getWebSocketSession(), CloseCodeConstant.INVALID_SESSION);
+            return;
+        }
+
+        for (ReplayBuffer.Entry entry : entries) {
+            transmit(session, entry.getFrame().render(gatewayCodec, session.getEncoding(), entry.getSequence()));
+        }
+
+        int sequence = session.getSequence();
+        session.increaseSequence();
+
+        EventFrame resumed = new EventFrame(GatewayConstant.Opcode.DISPATCH.ordinal(),
+                Map.of("replayed", entries.size()), GatewayConstant.Event.RESUMED.getValue());
+        byte[] prefix = resumed.encodePrefix(gatewayCodec, session.getEncoding());
+        session.getReplayBuffer().add(sequence, resumed, prefix.length);
+        transmit(session, gatewayCodec.encodeFrame(session.getEncoding(), prefix, sequence));
+
+        log.debug("Resumed session {} of user {} with {} replayed events", session.getSessionId(),
+                session.getUserId(), entries.size());
+    }
+
+    private void transmit(Session session, byte[] message) {
+        WebSocketSession wsSession = session.getWebSocketSession();
+
+        // closed sessions only keep their replay buffer up to date
+        if (session.isClosed() || !wsSession.isOpen()) return;
+
+        long now = System.currentTimeMillis();
+        session.setSendStartedAt(now);
+        sendTimeouts.schedule(session, now + gatewayConfig.getSendTimeLimit());
+        long startedAt = System.nanoTime();
+        try {
+            wsSession.sendMessage(toMessage(session, message));
+            gatewayMetrics.recordSend(System.nanoTime() - startedAt);
+        } catch (IOException | IllegalStateException e) {
+            dropped.increment();
+            log.debug("Failed to send message to session ({}): {}", wsSession.getId(), e.getMessage());
+        } finally {
+            sendTimeouts.cancel(session);
+            session.setSendStartedAt(0);
+        }
+    }
+
+    private WebSocketMessage<?> toMessage(Session session, byte[] message) {
+        Deflater deflater = session.getDeflater();
+
+        if (deflater != null) return new BinaryMessage(compress(deflater, message));
+        if (session.isBinary()) return new BinaryMessage(message);
+
+        return new TextMessage(message);
+    }
+
+    private byte[] compress(Deflater deflater, byte[] message) {
+        // one deflate context per connection, every frame ends on a sync flush marker (00 00 ff ff)
+        deflater.setInput(message);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, message.length / 2));
+        byte[] chunk = new byte[Math.max(64, Math.min(message.length + 64, 16384))];
+
+        int written;
+        do {
+            written = deflater.deflate(chunk, 0, chunk.length, Deflater.SYNC_FLUSH);
+            out.write(chunk, 0, written);
+        } while (written == chunk.length);
+
+        return out.toByteArray();
+    }
+
+    private void release(Session session, Object item) {
+        int size;
+        if (item instanceof byte[] message) {
+            size = message.length;
+        } else if (item instanceof EventFrame frame) {
+            size = frame.getPrefixes().get(session.getEncoding().ordinal()).length;
+        } else {
+            return;
+        }
+
+        session.getBufferedBytes().addAndGet(-size);
+        buffered.addAndGet(-size);
+    }
+
+    private void checkSendTime(Session session) {
+        // the timeout is cancelled when the send returns, so one that fires means the send is still blocked
+        if (session.getSendStartedAt() > 0) evict(session, "send time limit exceeded");
+    }
+
+    private void evict(Session session, String reason) {
+        if (session.isClosed()) return;
+        session.setClosed(true);
+
+        evicted.increment();
+        WebSocketSession wsSession = session.getWebSocketSession();
+        log.debug("Evicting session ({}): {}", wsSession.getId(), reason);
+
+        close(wsSession, CloseCodeConstant.SLOW_CONSUMER);
+    }
+
+    private void close(WebSocketSession wsSession, CloseStatus status) {
+        Thread.ofVirtual().start(() -> {
+            try {
+                wsSession.close(status);
+            } catch (IOException e) {
+                log.debug("Error closing session ({}): {}", wsSession.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private record Resume(Session previous, int since) {
+    }
+}
@@ -4,7 +4,7 @@ import app.foxochat.config.APIConfig;
 import app.foxochat.constant.AttributeConstant;
 import app.foxochat.exception.user.UserEmailNotVerifiedException;
 import app.foxochat.exception.user.UserUnauthorizedException;
-import app.foxochat.model.User;
+import app.foxochat.dto.internal.PrincipalDTO;
 import app.foxochat.service.AuthenticationService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -51,12 +51,12 @@ public class AuthenticationInterceptor implements HandlerInterceptor {
 
         String accessToken = request.getHeader(HttpHeaders.AUTHORIZATION);
 
-        User user = authenticationService.authUser(accessToken, ignoreEmailVerification);
+        PrincipalDTO principal = authenticationService.authUser(accessToken, ignoreEmailVerification);
 
-        request.setAttribute(AttributeConstant.USER, user);
+        request.setAttribute(AttributeConstant.PRINCIPAL, principal);
         request.setAttribute(AttributeConstant.ACCESS_TOKEN, accessToken);
 
-        log.debug("Authenticated user {} successfully", user.getUsername());
+        log.debug("Authenticated user {} successfully", principal.getUsername());
         return true;
     }
 }
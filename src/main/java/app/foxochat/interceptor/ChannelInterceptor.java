@@ -2,9 +2,9 @@ package app.foxochat.interceptor;
 
 import app.foxochat.constant.AttributeConstant;
 import app.foxochat.constant.ChannelConstant;
+import app.foxochat.dto.internal.PrincipalDTO;
 import app.foxochat.exception.channel.ChannelNotFoundException;
 import app.foxochat.model.Channel;
-import app.foxochat.model.User;
 import app.foxochat.service.ChannelService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -47,10 +47,10 @@ public class ChannelInterceptor implements HandlerInterceptor {
         long id = Long.parseLong(matcher.group(1));
         Channel channel = channelService.getById(id);
 
-        User user = (User) request.getAttribute(AttributeConstant.USER);
+        PrincipalDTO principal = (PrincipalDTO) request.getAttribute(AttributeConstant.PRINCIPAL);
 
         if (!channel.hasFlag(ChannelConstant.Flags.PUBLIC) && channel.getMembers().stream()
-                .noneMatch(u -> u.getUser().getId() == user.getId())) {
+                .noneMatch(u -> u.getUser().getId() == principal.getId())) {
             throw new ChannelNotFoundException();
         }
 
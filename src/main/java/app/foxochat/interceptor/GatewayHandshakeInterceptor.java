@@ -0,0 +1,72 @@
+package app.foxochat.interceptor;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.AttributeConstant;
+import app.foxochat.exception.user.UserEmailNotVerifiedException;
+import app.foxochat.exception.user.UserUnauthorizedException;
+import app.foxochat.model.User;
+import app.foxochat.service.AuthenticationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+@Slf4j
+@Component
+public class GatewayHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final AuthenticationService authenticationService;
+
+    private final GatewayConfig gatewayConfig;
+
+    public GatewayHandshakeInterceptor(AuthenticationService authenticationService, GatewayConfig gatewayConfig) {
+        this.authenticationService = authenticationService;
+        this.gatewayConfig = gatewayConfig;
+    }
+
+    @Override
+    public boolean beforeHandshake(
+            @NonNull ServerHttpRequest request,
+            @NonNull ServerHttpResponse response,
+            @NonNull WebSocketHandler wsHandler,
+            @NonNull Map<String, Object> attributes
+    ) {
+        if (!gatewayConfig.isHandshakeAuth()) return true;
+
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String token = header != null
+                ? header
+                : UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+
+        // clients without a token identify over the socket as before
+        if (token == null) return true;
+
+        try {
+            User user = authenticationService.getUser(token, true, header != null);
+            attributes.put(AttributeConstant.USER, user);
+
+            log.debug("Authenticated user {} during handshake", user.getId());
+            return true;
+        } catch (UserUnauthorizedException | UserEmailNotVerifiedException e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(
+            @NonNull ServerHttpRequest request,
+            @NonNull ServerHttpResponse response,
+            @NonNull WebSocketHandler wsHandler,
+            Exception exception
+    ) {
+    }
+}
@@ -1,10 +1,10 @@
 package app.foxochat.interceptor;
 
 import app.foxochat.constant.AttributeConstant;
+import app.foxochat.dto.internal.PrincipalDTO;
 import app.foxochat.exception.channel.ChannelNotFoundException;
 import app.foxochat.model.Channel;
 import app.foxochat.model.Member;
-import app.foxochat.model.User;
 import app.foxochat.service.MemberService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -39,10 +39,10 @@ public class MemberInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        User user = (User) request.getAttribute(AttributeConstant.USER);
+        PrincipalDTO principal = (PrincipalDTO) request.getAttribute(AttributeConstant.PRINCIPAL);
         Channel channel = (Channel) request.getAttribute(AttributeConstant.CHANNEL);
 
-        Member member = memberService.getByChannelIdAndUserId(channel.getId(), user.getId())
+        Member member = memberService.getByChannelIdAndUserId(channel.getId(), principal.getId())
                 .orElseThrow(ChannelNotFoundException::new);
 
         request.setAttribute(AttributeConstant.MEMBER, member);
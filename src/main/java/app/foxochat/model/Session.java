@@ -1,30 +1,81 @@
 package app.foxochat.model;
 
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.handler.structure.ReplayBuffer;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
 @Getter
 @Setter
 public class Session {
 
+    // encoded bytes, event frames still waiting for a sequence number, or writer commands
+    private final Queue<Object> outbound = new ConcurrentLinkedQueue<>();
+
+    private final CountDownLatch writerDone = new CountDownLatch(1);
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private final AtomicBoolean identifying = new AtomicBoolean();
+
+    private final GatewayConstant.Encoding encoding;
+
+    private final GatewayConstant.Compression compression;
+
+    private final Deflater deflater;
+
+    private ReplayBuffer replayBuffer;
+
     private long userId;
 
+    private String sessionId;
+
     private long lastPingTimestamp;
 
+    // owned by the writer thread, frames are numbered in the order they reach the socket
     private int sequence;
 
+    private Thread writer;
+
+    private volatile long sendStartedAt;
+
+    private volatile boolean closed;
+
+    // set once the connection is gone, guarded by the session monitor together with the user id
+    private volatile boolean released;
+
     private WebSocketSession webSocketSession;
 
-    public Session(WebSocketSession webSocketSession) {
+    public Session(WebSocketSession webSocketSession, GatewayConstant.Encoding encoding,
+                   GatewayConstant.Compression compression, ReplayBuffer replayBuffer) {
         this.lastPingTimestamp = System.currentTimeMillis();
         this.webSocketSession = webSocketSession;
+        this.replayBuffer = replayBuffer;
+        this.encoding = encoding;
+        this.compression = compression;
+        this.deflater = compression == GatewayConstant.Compression.ZLIB_STREAM ? new Deflater() : null;
     }
 
     public boolean isAuthenticated() {
         return this.userId > 0;
     }
 
+    public boolean beginIdentify() {
+        return identifying.compareAndSet(false, true);
+    }
+
+    public boolean isBinary() {
+        return encoding == GatewayConstant.Encoding.CBOR || deflater != null;
+    }
+
     public void increaseSequence() {
         this.sequence++;
     }
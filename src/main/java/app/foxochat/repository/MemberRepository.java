@@ -1,9 +1,14 @@
 package app.foxochat.repository;
 
+import app.foxochat.dto.gateway.response.ReadyChannelDTO;
+import app.foxochat.dto.internal.ChannelPartnerDTO;
 import app.foxochat.model.Member;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +20,19 @@ public interface MemberRepository extends CrudRepository<Member, Long> {
     List<Member> findAllByUserId(long userId);
 
     List<Member> findAllByChannelId(long channelId);
+
+    @Query("SELECT DISTINCT new app.foxochat.dto.internal.ChannelPartnerDTO(m.user.id, other.user.id) " +
+            "FROM Member m JOIN Member other ON other.channel = m.channel WHERE m.user.id IN :userIds")
+    List<ChannelPartnerDTO> findChannelPartnersByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT new app.foxochat.dto.gateway.response.ReadyChannelDTO(c.id, c.displayName, c.name, c.type, " +
+            "c.flags, c.createdAt, m.permissions, " +
+            "(SELECT COUNT(cm) FROM Member cm WHERE cm.channel = c), " +
+            "(SELECT MAX(msg.id) FROM Message msg WHERE msg.channel = c), " +
+            "(SELECT MIN(p.user.id) FROM Member p WHERE p.channel = c AND p.user.id <> :userId " +
+            "AND c.type = :dmType), " +
+            "a.id, a.uuid, a.filename, a.tumbhash, b.id, b.uuid, b.filename, b.tumbhash) " +
+            "FROM Member m JOIN m.channel c LEFT JOIN c.avatar a LEFT JOIN c.banner b " +
+            "WHERE m.user.id = :userId ORDER BY c.id")
+    List<ReadyChannelDTO> findReadyChannelsByUserId(@Param("userId") long userId, @Param("dmType") int dmType);
 }
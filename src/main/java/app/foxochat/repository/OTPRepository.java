@@ -1,8 +1,12 @@
 package app.foxochat.repository;
 
 import app.foxochat.model.OTP;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,4 +16,10 @@ public interface OTPRepository extends CrudRepository<OTP, Long> {
     Optional<OTP> findByUserId(long userId);
 
     Optional<OTP> findByValue(String value);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM otps WHERE user_id IN "
+            + "(SELECT user_id FROM otps WHERE expires_at <= :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
 }
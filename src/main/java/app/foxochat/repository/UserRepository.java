@@ -1,17 +1,46 @@
 package app.foxochat.repository;
 
+import app.foxochat.dto.gateway.response.ReadyUserDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
 import app.foxochat.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends CrudRepository<User, Long> {
 
+    // users are cached detached, so the lazy media they are rendered with is fetched up front
+    @EntityGraph(attributePaths = {"avatar", "banner"})
     Optional<User> findById(long id);
 
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT new app.foxochat.dto.internal.PrincipalDTO(u.id, u.tokenVersion, u.flags, u.username) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<PrincipalDTO> findPrincipalById(@Param("id") long id);
+
+    @Query("SELECT uc.contact.id FROM UserContact uc WHERE uc.user.id = :userId")
+    List<Long> findContactIdsByUserId(@Param("userId") long userId);
+
+    @Query("SELECT new app.foxochat.dto.gateway.response.ReadyUserDTO(u.id, u.displayName, u.username, u.status, " +
+            "u.statusUpdatedAt, u.flags, u.type, a.id, a.uuid, a.filename, a.tumbhash) " +
+            "FROM User u LEFT JOIN u.avatar a WHERE u.id IN :ids ORDER BY u.id")
+    List<ReadyUserDTO> findReadyUsersByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.status = :status, u.statusUpdatedAt = :statusUpdatedAt WHERE u.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") int status,
+                          @Param("statusUpdatedAt") long statusUpdatedAt);
 }
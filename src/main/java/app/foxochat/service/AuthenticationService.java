@@ -2,6 +2,8 @@ package app.foxochat.service;
 
 import app.foxochat.dto.api.request.UserResetPasswordConfirmDTO;
 import app.foxochat.dto.api.request.UserResetPasswordDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
+import app.foxochat.exception.api.ServerBusyException;
 import app.foxochat.exception.otp.NeedToWaitBeforeResendException;
 import app.foxochat.exception.otp.OTPExpiredException;
 import app.foxochat.exception.otp.OTPsInvalidException;
@@ -16,9 +18,13 @@ public interface AuthenticationService {
     User getUser(String token, boolean ignoreEmailVerification, boolean removeBearerFromString)
             throws UserUnauthorizedException, UserEmailNotVerifiedException;
 
-    String register(String username, String email, String password) throws UserCredentialsDuplicateException;
+    PrincipalDTO getPrincipal(String token, boolean ignoreEmailVerification)
+            throws UserUnauthorizedException, UserEmailNotVerifiedException;
+
+    String register(String username, String email, String password)
+            throws UserCredentialsDuplicateException, ServerBusyException;
 
-    String login(String email, String password) throws UserCredentialsIsInvalidException;
+    String login(String email, String password) throws UserCredentialsIsInvalidException, ServerBusyException;
 
     void verifyEmail(User user, String pathCode) throws OTPsInvalidException, OTPExpiredException;
 
@@ -27,8 +33,8 @@ public interface AuthenticationService {
     void resetPassword(UserResetPasswordDTO body) throws UserCredentialsIsInvalidException;
 
     void confirmResetPassword(UserResetPasswordConfirmDTO body)
-            throws OTPExpiredException, OTPsInvalidException, UserCredentialsIsInvalidException;
+            throws OTPExpiredException, OTPsInvalidException, UserCredentialsIsInvalidException, ServerBusyException;
 
-    User authUser(String accessToken, boolean ignoreEmailVerification)
+    PrincipalDTO authUser(String accessToken, boolean ignoreEmailVerification)
             throws UserUnauthorizedException, UserEmailNotVerifiedException;
 }
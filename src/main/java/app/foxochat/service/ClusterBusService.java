@@ -0,0 +1,12 @@
+package app.foxochat.service;
+
+import app.foxochat.dto.internal.GatewayClusterMessageDTO;
+
+import java.util.function.Consumer;
+
+public interface ClusterBusService {
+
+    void publish(GatewayClusterMessageDTO message) throws Exception;
+
+    void subscribe(Consumer<GatewayClusterMessageDTO> subscriber);
+}
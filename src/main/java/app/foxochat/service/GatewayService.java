@@ -1,8 +1,14 @@
 package app.foxochat.service;
 
+import app.foxochat.constant.GatewayConstant;
+
 import java.util.List;
 
 public interface GatewayService {
 
     void sendMessageToSpecificSessions(List<Long> userIds, int opcode, Object data, String type) throws Exception;
+
+    void dispatchToChannel(long channelId, List<Long> userIds, GatewayConstant.Event event, Object data);
+
+    void dispatchToUsers(long key, List<Long> userIds, GatewayConstant.Event event, Object data);
 }
@@ -1,5 +1,6 @@
 package app.foxochat.service;
 
+import app.foxochat.dto.internal.TokenDTO;
 import app.foxochat.model.User;
 
 import javax.crypto.SecretKey;
@@ -8,4 +9,6 @@ public interface JwtService {
     String generate(User user);
 
     SecretKey getSigningKey();
+
+    TokenDTO verify(String token);
 }
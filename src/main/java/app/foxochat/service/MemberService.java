@@ -1,9 +1,12 @@
 package app.foxochat.service;
 
+import app.foxochat.dto.gateway.response.ReadyChannelDTO;
 import app.foxochat.model.Channel;
 import app.foxochat.model.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface MemberService {
@@ -11,6 +14,10 @@ public interface MemberService {
 
     List<Member> getAllByChannelId(long channelId);
 
+    Map<Long, List<Long>> getChannelPartnerIdsByUserIds(Collection<Long> userIds);
+
+    List<ReadyChannelDTO> getReadyChannelsByUserId(long userId);
+
     Optional<Member> getByChannelIdAndUserId(long channelId, long userId);
 
     Member add(Member member);
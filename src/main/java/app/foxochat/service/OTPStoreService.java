@@ -0,0 +1,16 @@
+package app.foxochat.service;
+
+import app.foxochat.model.OTP;
+
+import java.util.Optional;
+
+public interface OTPStoreService {
+
+    void save(OTP OTP);
+
+    Optional<OTP> getByValue(String value);
+
+    Optional<OTP> getByUserId(long userId);
+
+    void delete(OTP OTP);
+}
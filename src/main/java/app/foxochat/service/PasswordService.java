@@ -0,0 +1,12 @@
+package app.foxochat.service;
+
+import app.foxochat.exception.api.ServerBusyException;
+
+public interface PasswordService {
+
+    String hash(String password) throws ServerBusyException;
+
+    boolean verify(String password, String hashedPassword) throws ServerBusyException;
+
+    boolean needsRehash(String hashedPassword);
+}
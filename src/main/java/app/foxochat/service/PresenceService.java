@@ -0,0 +1,12 @@
+package app.foxochat.service;
+
+public interface PresenceService {
+
+    void connect(long userId);
+
+    void disconnect(long userId);
+
+    int getStatus(long userId);
+
+    void flush();
+}
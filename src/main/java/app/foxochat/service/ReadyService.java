@@ -0,0 +1,12 @@
+package app.foxochat.service;
+
+import app.foxochat.dto.gateway.response.ReadyDTO;
+import app.foxochat.dto.gateway.response.ReadyChannelDTO;
+import app.foxochat.model.User;
+
+import java.util.List;
+
+public interface ReadyService {
+
+    ReadyDTO getReady(User user, List<ReadyChannelDTO> channels);
+}
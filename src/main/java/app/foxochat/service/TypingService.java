@@ -0,0 +1,15 @@
+package app.foxochat.service;
+
+import app.foxochat.dto.gateway.response.TypingStartDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TypingService {
+
+    boolean start(long userId, long channelId);
+
+    void stop(long userId, long channelId);
+
+    List<TypingStartDTO> getTyping(Collection<Long> channelIds);
+}
@@ -2,39 +2,52 @@ package app.foxochat.service;
 
 import app.foxochat.constant.UserConstant;
 import app.foxochat.dto.api.request.UserEditDTO;
+import app.foxochat.dto.gateway.response.ReadyUserDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
+import app.foxochat.exception.api.ServerBusyException;
 import app.foxochat.exception.otp.OTPExpiredException;
 import app.foxochat.exception.otp.OTPsInvalidException;
 import app.foxochat.exception.user.UserContactAlreadyExistException;
 import app.foxochat.exception.user.UserContactNotFoundException;
 import app.foxochat.exception.user.UserCredentialsDuplicateException;
 import app.foxochat.exception.user.UserCredentialsIsInvalidException;
+import app.foxochat.exception.user.UserUnauthorizedException;
 import app.foxochat.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserService {
 
     Optional<User> getById(long id);
 
+    Optional<PrincipalDTO> getPrincipal(long id);
+
+    User getByPrincipal(PrincipalDTO principal) throws UserUnauthorizedException;
+
     Optional<User> getByUsername(String username);
 
     Optional<User> getByEmail(String email);
 
     void updateFlags(User user, UserConstant.Flags removeFlag, UserConstant.Flags addFlag);
 
-    User add(String username, String email, String password) throws UserCredentialsDuplicateException;
+    User add(String username, String email, String password)
+            throws UserCredentialsDuplicateException, ServerBusyException;
 
     User update(User user, UserEditDTO body) throws Exception;
 
-    void requestDelete(User user, String password) throws UserCredentialsIsInvalidException;
+    void requestDelete(User user, String password) throws UserCredentialsIsInvalidException, ServerBusyException;
 
     void confirmDelete(User user, String pathCode) throws OTPsInvalidException, OTPExpiredException;
 
-    void setStatus(long userId, int status) throws Exception;
-
     User addContact(User user, long id) throws UserContactAlreadyExistException;
 
     void deleteContact(User user, long id) throws UserContactNotFoundException;
 
     void save(User user);
+
+    List<Long> getContactIds(long userId);
+
+    List<ReadyUserDTO> getReadyUsersByIds(Collection<Long> ids);
 }
@@ -6,6 +6,9 @@ import app.foxochat.constant.OTPConstant;
 import app.foxochat.constant.UserConstant;
 import app.foxochat.dto.api.request.UserResetPasswordConfirmDTO;
 import app.foxochat.dto.api.request.UserResetPasswordDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
+import app.foxochat.dto.internal.TokenDTO;
+import app.foxochat.exception.api.ServerBusyException;
 import app.foxochat.exception.otp.NeedToWaitBeforeResendException;
 import app.foxochat.exception.otp.OTPExpiredException;
 import app.foxochat.exception.otp.OTPsInvalidException;
@@ -17,9 +20,6 @@ import app.foxochat.model.OTP;
 import app.foxochat.model.User;
 import app.foxochat.service.*;
 import app.foxochat.util.OTPGenerator;
-import app.foxochat.util.PasswordHasher;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -37,49 +37,59 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private final APIConfig apiConfig;
 
+    private final PasswordService passwordService;
+
     public AuthenticationServiceImpl(UserService userService, EmailService emailService, JwtService jwtService,
-                                     OTPService otpService, APIConfig apiConfig) {
+                                     OTPService otpService, APIConfig apiConfig, PasswordService passwordService) {
         this.userService = userService;
         this.emailService = emailService;
         this.jwtService = jwtService;
         this.otpService = otpService;
         this.apiConfig = apiConfig;
+        this.passwordService = passwordService;
     }
 
     public User getUser(
             String token,
             boolean ignoreEmailVerification,
             boolean removeBearerFromString
+    ) throws UserUnauthorizedException, UserEmailNotVerifiedException {
+        PrincipalDTO principal = getPrincipal(token, ignoreEmailVerification);
+
+        return userService.getById(principal.getId()).orElseThrow(UserUnauthorizedException::new);
+    }
+
+    public PrincipalDTO getPrincipal(
+            String token,
+            boolean ignoreEmailVerification
     ) throws UserUnauthorizedException, UserEmailNotVerifiedException {
         if (token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
 
-        User user;
+        PrincipalDTO principal;
 
         try {
-            Claims claimsJws = Jwts.parser()
-                    .verifyWith(jwtService.getSigningKey())
-                    .build()
-                    .parseSignedClaims(token).getPayload();
-            long userId = Long.parseLong(claimsJws.getId());
-            long tokenVersion = Long.parseLong(claimsJws.getSubject());
+            TokenDTO verified = jwtService.verify(token);
 
-            user = userService.getById(userId).orElseThrow(UserUnauthorizedException::new);
+            if (verified.getExpiresAt() <= System.currentTimeMillis()) throw new UserUnauthorizedException();
 
-            if (tokenVersion != user.getTokenVersion()) throw new UserUnauthorizedException();
+            principal = userService.getPrincipal(verified.getUserId()).orElseThrow(UserUnauthorizedException::new);
+
+            if (verified.getTokenVersion() != principal.getTokenVersion()) throw new UserUnauthorizedException();
         } catch (Exception e) {
             throw new UserUnauthorizedException();
         }
 
-        if (!ignoreEmailVerification && user.hasFlag(UserConstant.Flags.AWAITING_CONFIRMATION) && !user.hasFlag(
-                UserConstant.Flags.EMAIL_VERIFIED))
+        if (!ignoreEmailVerification && principal.hasFlag(UserConstant.Flags.AWAITING_CONFIRMATION)
+                && !principal.hasFlag(UserConstant.Flags.EMAIL_VERIFIED))
             throw new UserEmailNotVerifiedException();
 
-        return user;
+        return principal;
     }
 
-    public String register(String username, String email, String password) throws UserCredentialsDuplicateException {
+    public String register(String username, String email, String password)
+            throws UserCredentialsDuplicateException, ServerBusyException {
         User user = userService.add(username, email, password);
 
         log.debug("User ({}) created successfully", user.getUsername());
@@ -104,9 +114,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
                 expiresAt, accessToken);
     }
 
-    public String login(String email, String password) throws UserCredentialsIsInvalidException {
+    public String login(String email, String password) throws UserCredentialsIsInvalidException, ServerBusyException {
         User user = userService.getByEmail(email).orElseThrow(UserCredentialsIsInvalidException::new);
-        if (!PasswordHasher.verifyPassword(password, user.getPassword())) throw new UserCredentialsIsInvalidException();
+        if (!passwordService.verify(password, user.getPassword())) throw new UserCredentialsIsInvalidException();
+
+        if (passwordService.needsRehash(user.getPassword())) rehash(user, password);
 
         log.debug("User ({}) login successfully", user.getUsername());
         return jwtService.generate(user);
@@ -156,11 +168,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     public void confirmResetPassword(
             UserResetPasswordConfirmDTO body
-    ) throws OTPExpiredException, OTPsInvalidException, UserCredentialsIsInvalidException {
+    ) throws OTPExpiredException, OTPsInvalidException, UserCredentialsIsInvalidException, ServerBusyException {
         User user = userService.getByEmail(body.getEmail()).orElseThrow(UserCredentialsIsInvalidException::new);
         OTP OTP = otpService.validate(body.getOTP());
 
-        user.setPassword(PasswordHasher.hashPassword(body.getNewPassword()));
+        user.setPassword(passwordService.hash(body.getNewPassword()));
         user.setTokenVersion(user.getTokenVersion() + 1);
         userService.save(user);
         user.removeFlag(UserConstant.Flags.AWAITING_CONFIRMATION);
@@ -169,7 +181,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         log.debug("User ({}) password reset successfully", user.getUsername());
     }
 
-    public User authUser(
+    public PrincipalDTO authUser(
             String accessToken,
             boolean ignoreEmailVerification
     ) throws UserUnauthorizedException, UserEmailNotVerifiedException {
@@ -177,6 +189,17 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
         if (!accessToken.startsWith("Bearer ")) throw new UserUnauthorizedException();
 
-        return getUser(accessToken, ignoreEmailVerification, true);
+        return getPrincipal(accessToken, ignoreEmailVerification);
+    }
+
+    private void rehash(User user, String password) {
+        // the login already succeeded, upgrading the hash can wait for a quieter moment
+        try {
+            user.setPassword(passwordService.hash(password));
+            userService.save(user);
+            log.debug("User ({}) password rehashed", user.getUsername());
+        } catch (ServerBusyException e) {
+            log.debug("Skipped password rehash for user ({}), hasher is busy", user.getUsername());
+        }
     }
 }
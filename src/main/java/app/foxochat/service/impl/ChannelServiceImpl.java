@@ -28,8 +28,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -85,6 +83,10 @@ public class ChannelServiceImpl implements ChannelService {
         Member member = new Member(user, channel, MemberConstant.Permissions.OWNER.getBit());
         memberService.add(member);
 
+        gatewayService.dispatchToChannel(channel.getId(),
+                isDM ? List.of(user.getId(), partner.getId()) : List.of(user.getId()),
+                GatewayConstant.Event.CHANNEL_CREATE,
+                Map.of("id", channel.getId()));
         log.debug("Channel ({}) by user ({}) created successfully", channel.getName(), user.getUsername());
         return channel;
     }
@@ -136,10 +138,9 @@ public class ChannelServiceImpl implements ChannelService {
             throw new UploadFailedException();
         }
 
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new ChannelUpdateDTO(channel.getId(), displayName, name, 0, avatar != null ? avatar : 0),
-                GatewayConstant.Event.CHANNEL_UPDATE.getValue());
+        gatewayService.dispatchToChannel(channel.getId(), List.of(),
+                GatewayConstant.Event.CHANNEL_UPDATE,
+                new ChannelUpdateDTO(channel.getId(), displayName, name, 0, avatar != null ? avatar : 0));
         log.debug("Channel ({}) edited successfully", channel.getName());
         return channel;
     }
@@ -153,10 +154,9 @@ public class ChannelServiceImpl implements ChannelService {
             throw new MissingPermissionsException();
 
         channelRepository.delete(channel);
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                Map.of("id", channel.getId()),
-                GatewayConstant.Event.CHANNEL_DELETE.getValue());
+        gatewayService.dispatchToChannel(channel.getId(), List.of(),
+                GatewayConstant.Event.CHANNEL_DELETE,
+                Map.of("id", channel.getId()));
         log.debug("Channel ({}) deleted successfully", channel.getName());
     }
 
@@ -169,12 +169,13 @@ public class ChannelServiceImpl implements ChannelService {
 
         Member member = new Member(user, channel, 0);
         member.setPermissions(MemberConstant.Permissions.ATTACH_FILES, MemberConstant.Permissions.SEND_MESSAGES);
+        member = memberService.add(member);
+
+        gatewayService.dispatchToChannel(channel.getId(), List.of(user.getId()),
+                GatewayConstant.Event.MEMBER_ADD,
+                new MemberDTO(member, true));
         log.debug("Member ({}) joined channel ({}) successfully", member.getUser().getUsername(), channel.getName());
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new MemberDTO(member, true),
-                GatewayConstant.Event.MEMBER_ADD.getValue());
-        return memberService.add(member);
+        return member;
     }
 
     @Override
@@ -185,18 +186,9 @@ public class ChannelServiceImpl implements ChannelService {
         if (channel.getType() == ChannelConstant.Type.DM.getType()) throw new ChannelNotFoundException();
 
         memberService.delete(member);
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new MemberDTO(member, true),
-                GatewayConstant.Event.MEMBER_REMOVE.getValue());
+        gatewayService.dispatchToChannel(channel.getId(), List.of(user.getId()),
+                GatewayConstant.Event.MEMBER_REMOVE,
+                new MemberDTO(member, true));
         log.debug("Member ({}) left channel ({}) successfully", member.getUser().getUsername(), channel.getName());
     }
-
-    private List<Long> getRecipients(Channel channel) {
-        Optional<Channel> optChannel = channelRepository.findById(channel.getId());
-
-        if (optChannel.isPresent()) channel = optChannel.get();
-
-        return channel.getMembers().stream().map(Member::getUser).map(User::getId).collect(Collectors.toList());
-    }
 }
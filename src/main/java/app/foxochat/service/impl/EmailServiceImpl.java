@@ -6,69 +6,259 @@ import app.foxochat.constant.EmailConstant;
 import app.foxochat.service.EmailService;
 import app.foxochat.service.OTPService;
 import app.foxochat.util.StringUtils;
+import app.foxochat.util.Template;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 @Slf4j
 @Service
 public class EmailServiceImpl implements EmailService {
 
-    private final OTPService otpService;
+    private static final String TEMPLATE_NAME = "email";
 
-    private final ResourceLoader resourceLoader;
+    private final OTPService otpService;
 
     private final JavaMailSender javaMailSender;
 
+    private final JdbcTemplate jdbcTemplate;
+
     private final EmailConfig emailConfig;
 
     private final APIConfig apiConfig;
 
+    private final Template template;
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    // refreshed by the workers so a metrics scrape never reaches the database
+    private final AtomicLong depth = new AtomicLong();
+
+    private final AtomicLong depthRefreshedAt = new AtomicLong();
+
+    private final Timer sendTime;
+
+    private final Timer deliveryTime;
+
+    private final Counter retried;
+
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+
     public EmailServiceImpl(OTPService otpService, JavaMailSender javaMailSender, ResourceLoader resourceLoader,
-                            EmailConfig emailConfig, APIConfig apiConfig) {
+                            JdbcTemplate jdbcTemplate, EmailConfig emailConfig, APIConfig apiConfig,
+                            MeterRegistry meterRegistry) throws IOException {
         this.otpService = otpService;
         this.javaMailSender = javaMailSender;
-        this.resourceLoader = resourceLoader;
+        this.jdbcTemplate = jdbcTemplate;
         this.emailConfig = emailConfig;
         this.apiConfig = apiConfig;
+        this.template = Template.compile(readHTML(resourceLoader));
+
+        Gauge.builder("email.outbox.depth", depth, AtomicLong::get)
+                .description("Emails waiting in the outbox")
+                .register(meterRegistry);
+        this.sendTime = Timer.builder("email.send.duration")
+                .description("Time to deliver a batch of emails over one SMTP connection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.deliveryTime = Timer.builder("email.delivery.duration")
+                .description("Time from queueing an email to the SMTP server accepting it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retried = Counter.builder("email.send.retried")
+                .description("Emails scheduled for another attempt after a failed send")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("email.send.dropped")
+                .description("Emails given up on after the last attempt")
+                .register(meterRegistry);
+
+        for (int i = 0; i < emailConfig.getWorkers(); i++) {
+            workers.add(Thread.ofVirtual().name("email-worker-" + i).start(this::work));
+        }
     }
 
-    @Async
     @Override
+    @Transactional
     public void send(String to, long id, String type, String username, String digitCode, long issuedAt, long expiresAt,
                      String token) {
         if (apiConfig.isDevelopment()) return;
 
+        // the code has to be valid by the time the email can arrive, and both are committed together
+        otpService.save(id, type, digitCode, issuedAt, expiresAt);
+
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("INSERT INTO email_outbox (recipient, subject, body, next_attempt_at, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", to, getSubjectByType(type), template.render(username, digitCode), now, now);
+        log.debug("Email {} to {} queued successfully", type, to);
+
+        // workers woken before the commit would find nothing and go back to sleep
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                workers.forEach(LockSupport::unpark);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                refreshDepth();
+
+                // a full batch means more is likely waiting, go straight back for it
+                if (deliver() < emailConfig.getBatchSize())
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(emailConfig.getPollInterval()));
+            } catch (Exception e) {
+                if (!running) return;
+
+                log.error("Failed to deliver queued emails", e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(emailConfig.getPollInterval()));
+            }
+        }
+    }
+
+    private int deliver() {
+        long now = System.currentTimeMillis();
+
+        // claimed rows are hidden for the lease, a node that dies mid-send leaves them to be picked up again
+        List<Mail> mails = jdbcTemplate.query("UPDATE email_outbox SET next_attempt_at = ?, attempts = attempts + 1 "
+                        + "WHERE id IN (SELECT id FROM email_outbox WHERE next_attempt_at <= ? ORDER BY next_attempt_at "
+                        + "LIMIT ? FOR UPDATE SKIP LOCKED) "
+                        + "RETURNING id, recipient, subject, body, attempts, created_at",
+                (rs, rowNum) -> new Mail(rs.getLong("id"), rs.getString("recipient"), rs.getString("subject"),
+                        rs.getString("body"), rs.getInt("attempts"), rs.getLong("created_at")),
+                now + emailConfig.getLease(), now, emailConfig.getBatchSize());
+
+        if (mails.isEmpty()) return 0;
+
+        Map<MimeMessage, Mail> messages = new IdentityHashMap<>();
+        List<Object[]> sent = new ArrayList<>();
+        List<Mail> failed = new ArrayList<>();
+
+        for (Mail mail : mails) {
+            try {
+                messages.put(createMessage(mail), mail);
+            } catch (MessagingException e) {
+                log.error("Failed to build email to {}", mail.recipient(), e);
+                failed.add(mail);
+            }
+        }
+
+        if (!messages.isEmpty()) send(messages, failed);
+
+        long sentAt = System.currentTimeMillis();
+        for (Mail mail : messages.values()) {
+            sent.add(new Object[]{mail.id()});
+            deliveryTime.record(sentAt - mail.createdAt(), TimeUnit.MILLISECONDS);
+        }
+
+        if (!sent.isEmpty()) jdbcTemplate.batchUpdate("DELETE FROM email_outbox WHERE id = ?", sent);
+
+        for (Mail mail : failed) retry(mail, sentAt);
+
+        log.debug("Delivered {} of {} queued emails", sent.size(), mails.size());
+        return mails.size();
+    }
+
+    private void send(Map<MimeMessage, Mail> messages, List<Mail> failed) {
+        long startedAt = System.nanoTime();
+
+        try {
+            // one connection for the whole batch
+            javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, exception) -> {
+                Mail mail = messages.remove(message);
+                if (mail == null) return;
+
+                log.warn("Failed to send email to {}: {}", mail.recipient(), exception.getMessage());
+                failed.add(mail);
+            });
+
+            // the connection itself failed, nothing in the batch went out
+            if (e.getFailedMessages().isEmpty()) {
+                log.warn("Failed to send {} emails: {}", messages.size(), e.getMessage());
+                failed.addAll(messages.values());
+                messages.clear();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to send {} emails: {}", messages.size(), e.getMessage());
+            failed.addAll(messages.values());
+            messages.clear();
+        } finally {
+            sendTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void retry(Mail mail, long now) {
+        if (mail.attempts() >= emailConfig.getMaxAttempts()) {
+            jdbcTemplate.update("DELETE FROM email_outbox WHERE id = ?", mail.id());
+            dropped.increment();
+            log.error("Gave up sending email to {} after {} attempts", mail.recipient(), mail.attempts());
+            return;
+        }
+
+        long backoff = emailConfig.getRetryBackoff() << Math.min(mail.attempts() - 1, 10);
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ? WHERE id = ?", now + backoff, mail.id());
+        retried.increment();
+    }
+
+    private MimeMessage createMessage(Mail mail) throws MessagingException {
         MimeMessage mimeMessage = javaMailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, StandardCharsets.UTF_8.name());
 
-        try {
-            helper.setTo(to);
-            helper.setFrom(emailConfig.getEmail());
+        helper.setTo(mail.recipient());
+        helper.setFrom(emailConfig.getEmail());
+        helper.setSubject(mail.subject());
+        helper.setText(mail.body(), true);
 
-            String subject = getSubjectByType(type);
-            String htmlContent = getContentByType(username, digitCode, token);
+        return mimeMessage;
+    }
 
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
+    private void refreshDepth() {
+        long now = System.currentTimeMillis();
+        long refreshedAt = depthRefreshedAt.get();
 
-            javaMailSender.send(mimeMessage);
-            log.debug("Email {} sent to {} successfully", type, to);
+        // one worker counts per poll interval
+        if (now - refreshedAt < emailConfig.getPollInterval() || !depthRefreshedAt.compareAndSet(refreshedAt, now))
+            return;
 
-            otpService.save(id, type, digitCode, issuedAt, expiresAt);
-        } catch (IllegalArgumentException | MessagingException | IOException e) {
-            log.error("Error occurred while sending email to {}: {}", to, e.getMessage(), e);
-        }
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM email_outbox", Long.class);
+        if (count != null) depth.set(count);
     }
 
     private String getSubjectByType(String type) {
@@ -81,21 +271,19 @@ public class EmailServiceImpl implements EmailService {
         };
     }
 
-    private String getContentByType(String username, String digitCode, String token) throws IOException {
-        return readHTML().replace("{0}", username).replace("{1}", digitCode);//.replace("{2}", token);
-    }
-
-    private String readHTML() throws IOException {
-        String templateName = "email";
-        Resource resource = resourceLoader.getResource("classpath:templates/" + templateName + ".html");
+    private String readHTML(ResourceLoader resourceLoader) throws IOException {
+        Resource resource = resourceLoader.getResource("classpath:templates/" + TEMPLATE_NAME + ".html");
 
         if (!resource.exists()) {
-            log.error("Template not found: {}", templateName);
-            throw new IOException("Template file not found: " + templateName);
+            log.error("Template not found: {}", TEMPLATE_NAME);
+            throw new IOException("Template file not found: " + TEMPLATE_NAME);
         }
 
         try (InputStream inputStream = resource.getInputStream()) {
             return StringUtils.inputStreamToString(inputStream, StandardCharsets.UTF_8);
         }
     }
+
+    private record Mail(long id, String recipient, String subject, String body, int attempts, long createdAt) {
+    }
 }
@@ -1,52 +1,79 @@
 package app.foxochat.service.impl;
 
-import app.foxochat.dto.gateway.EventDTO;
-import app.foxochat.handler.structure.EventHandler;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.dto.gateway.EventFrame;
+import app.foxochat.dto.internal.GatewayDispatchDTO;
+import app.foxochat.handler.structure.GatewayDispatchEvent;
+import app.foxochat.handler.structure.GatewayMetrics;
+import app.foxochat.handler.structure.SessionRegistry;
+import app.foxochat.handler.structure.SessionWriter;
 import app.foxochat.model.Session;
 import app.foxochat.service.GatewayService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.TextMessage;
-import org.springframework.web.socket.WebSocketSession;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class GatewayServiceImpl implements GatewayService {
 
-    private final EventHandler webSocketHandler;
+    private final SessionRegistry sessionRegistry;
 
-    private final ObjectMapper objectMapper;
+    private final SessionWriter sessionWriter;
 
-    public GatewayServiceImpl(EventHandler webSocketHandler, ObjectMapper objectMapper) {
-        this.webSocketHandler = webSocketHandler;
-        this.objectMapper = objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final GatewayMetrics gatewayMetrics;
+
+    public GatewayServiceImpl(SessionRegistry sessionRegistry, SessionWriter sessionWriter,
+                              ApplicationEventPublisher eventPublisher, GatewayMetrics gatewayMetrics) {
+        this.sessionRegistry = sessionRegistry;
+        this.sessionWriter = sessionWriter;
+        this.eventPublisher = eventPublisher;
+        this.gatewayMetrics = gatewayMetrics;
+    }
+
+    @Override
+    public void dispatchToChannel(long channelId, List<Long> userIds, GatewayConstant.Event event, Object data) {
+        eventPublisher.publishEvent(new GatewayDispatchDTO(channelId, channelId, userIds, event, data));
+    }
+
+    @Override
+    public void dispatchToUsers(long key, List<Long> userIds, GatewayConstant.Event event, Object data) {
+        eventPublisher.publishEvent(new GatewayDispatchDTO(key, 0, userIds, event, data));
     }
 
     @Override
     public void sendMessageToSpecificSessions(List<Long> userIds, int opcode, Object data, String type)
             throws Exception {
-        ConcurrentHashMap<String, Session> sessions = webSocketHandler.getSessions();
         log.debug("Trying to send message to users ({}) with (opcode: {}, type: {})", userIds, opcode, type);
-        for (Session session : sessions.values()) {
-            if (session != null) {
-                if (!userIds.contains(session.getUserId())) continue;
+        long startedAt = System.nanoTime();
+        GatewayDispatchEvent dispatchEvent = new GatewayDispatchEvent();
+        dispatchEvent.begin();
 
-                int seqNumber = session.getSequence();
-                session.increaseSequence();
-                WebSocketSession wsSession = session.getWebSocketSession();
+        EventFrame frame = new EventFrame(opcode, data, type);
+        Set<Long> recipients = new HashSet<>(userIds);
+        int sessions = 0;
+        for (long userId : recipients) {
+            for (Session session : sessionRegistry.getSessions(userId)) {
+                sessionWriter.send(session, frame);
+                sessions++;
+                log.debug("Queued message to userId ({}) with (opcode: {}, type: {})", session.getUserId(), opcode, type);
+            }
+        }
 
-                if (!wsSession.isOpen()) continue;
+        gatewayMetrics.recordDispatch(type, sessions, System.nanoTime() - startedAt);
 
-                wsSession.sendMessage(new TextMessage(objectMapper.writeValueAsString(new EventDTO(opcode,
-                        data,
-                        seqNumber,
-                        type))));
-                log.debug("Sent message to userId ({}) with (opcode: {}, type: {})", session.getUserId(), opcode, type);
-            }
+        dispatchEvent.end();
+        if (dispatchEvent.shouldCommit()) {
+            dispatchEvent.setType(type);
+            dispatchEvent.setRecipients(recipients.size());
+            dispatchEvent.setSessions(sessions);
+            dispatchEvent.commit();
         }
     }
 }
@@ -2,23 +2,45 @@ package app.foxochat.service.impl;
 
 import app.foxochat.config.JwtConfig;
 import app.foxochat.constant.TokenConstant;
+import app.foxochat.dto.internal.TokenDTO;
 import app.foxochat.model.User;
 import app.foxochat.service.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 
 @Service
 public class JwtServiceImpl implements JwtService {
 
-    private final JwtConfig jwtConfig;
+    private final SecretKey signingKey;
+
+    private final JwtParser parser;
+
+    // keyed by a digest so raw tokens are never kept in memory
+    private final Cache<String, TokenDTO> tokens;
 
     public JwtServiceImpl(JwtConfig jwtConfig) {
-        this.jwtConfig = jwtConfig;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecret()));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getCacheSize())
+                .expireAfter(Expiry.creating((String digest, TokenDTO token) ->
+                        Duration.ofMillis(Math.max(0, token.getExpiresAt() - System.currentTimeMillis()))))
+                .build();
     }
 
     @Override
@@ -29,13 +51,32 @@ public class JwtServiceImpl implements JwtService {
         return Jwts.builder()
                 .id(String.valueOf(user.getId()))
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .subject(String.valueOf(user.getTokenVersion()))
                 .compact();
     }
 
     @Override
     public SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecret()));
+        return signingKey;
+    }
+
+    @Override
+    public TokenDTO verify(String token) {
+        return tokens.get(digest(token), digest -> {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+
+            return new TokenDTO(Long.parseLong(claims.getId()), Long.parseLong(claims.getSubject()),
+                    claims.getExpiration().getTime());
+        });
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
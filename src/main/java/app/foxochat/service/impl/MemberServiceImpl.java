@@ -1,5 +1,8 @@
 package app.foxochat.service.impl;
 
+import app.foxochat.constant.ChannelConstant;
+import app.foxochat.dto.gateway.response.ReadyChannelDTO;
+import app.foxochat.dto.internal.ChannelPartnerDTO;
 import app.foxochat.model.Channel;
 import app.foxochat.model.Member;
 import app.foxochat.repository.MemberRepository;
@@ -7,7 +10,9 @@ import app.foxochat.service.MemberService;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -35,6 +40,19 @@ public class MemberServiceImpl implements MemberService {
         return memberRepository.findAllByChannelId(channelId);
     }
 
+    @Override
+    public Map<Long, List<Long>> getChannelPartnerIdsByUserIds(Collection<Long> userIds) {
+        return memberRepository.findChannelPartnersByUserIds(userIds)
+                .stream()
+                .collect(Collectors.groupingBy(ChannelPartnerDTO::getUserId,
+                        Collectors.mapping(ChannelPartnerDTO::getPartnerId, Collectors.toList())));
+    }
+
+    @Override
+    public List<ReadyChannelDTO> getReadyChannelsByUserId(long userId) {
+        return memberRepository.findReadyChannelsByUserId(userId, ChannelConstant.Type.DM.getType());
+    }
+
     @Override
     @Cacheable("member")
     public Optional<Member> getByChannelIdAndUserId(long channelId, long userId) {
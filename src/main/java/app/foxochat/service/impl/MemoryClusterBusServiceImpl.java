@@ -0,0 +1,45 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.dto.internal.GatewayClusterMessageDTO;
+import app.foxochat.service.ClusterBusService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "gateway.cluster-bus", havingValue = "memory", matchIfMissing = true)
+public class MemoryClusterBusServiceImpl implements ClusterBusService {
+
+    // shared by every application context in the JVM, so several nodes can run side by side
+    private static final List<Consumer<GatewayClusterMessageDTO>> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<GatewayClusterMessageDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(GatewayClusterMessageDTO message) {
+        for (Consumer<GatewayClusterMessageDTO> subscriber : SUBSCRIBERS) {
+            try {
+                subscriber.accept(message);
+            } catch (Exception e) {
+                log.error("Cluster subscriber failed to handle {} event", message.getEvent().getValue(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<GatewayClusterMessageDTO> subscriber) {
+        subscribers.add(subscriber);
+        SUBSCRIBERS.add(subscriber);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        SUBSCRIBERS.removeAll(subscribers);
+    }
+}
@@ -0,0 +1,79 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.model.OTP;
+import app.foxochat.service.OTPStoreService;
+import app.foxochat.util.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory")
+public class MemoryOTPStoreServiceImpl implements OTPStoreService {
+
+    private static final long TICK = 1000;
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final ConcurrentHashMap<Long, OTP> byUserId = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, OTP> byValue = new ConcurrentHashMap<>();
+
+    private final TimingWheel<Long> expirations;
+
+    public MemoryOTPStoreServiceImpl(MeterRegistry meterRegistry) {
+        this.expirations = new TimingWheel<>("otp-expiry", TICK, WHEEL_SIZE, this::expire);
+
+        Gauge.builder("otp.store.size", byUserId, ConcurrentHashMap::size)
+                .description("OTPs held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(OTP OTP) {
+        // a user holds a single code, issuing a new one invalidates the previous
+        OTP previous = byUserId.put(OTP.getUserId(), OTP);
+        if (previous != null) byValue.remove(previous.getValue(), previous);
+
+        byValue.put(OTP.getValue(), OTP);
+        expirations.schedule(OTP.getUserId(), OTP.getExpiresAt());
+    }
+
+    @Override
+    public Optional<OTP> getByValue(String value) {
+        return Optional.ofNullable(byValue.get(value));
+    }
+
+    @Override
+    public Optional<OTP> getByUserId(long userId) {
+        return Optional.ofNullable(byUserId.get(userId));
+    }
+
+    @Override
+    public void delete(OTP OTP) {
+        if (byUserId.remove(OTP.getUserId(), OTP)) expirations.cancel(OTP.getUserId());
+
+        byValue.remove(OTP.getValue(), OTP);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expirations.stop();
+    }
+
+    private void expire(long userId) {
+        OTP OTP = byUserId.remove(userId);
+
+        if (OTP == null) return;
+
+        byValue.remove(OTP.getValue(), OTP);
+        log.debug("OTP for user ({}) expired", userId);
+    }
+}
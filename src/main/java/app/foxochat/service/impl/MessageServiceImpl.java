@@ -6,7 +6,6 @@ import app.foxochat.dto.api.request.AttachmentUploadDTO;
 import app.foxochat.dto.api.request.MessageCreateDTO;
 import app.foxochat.dto.api.response.MediaUploadDTO;
 import app.foxochat.dto.api.response.MessageDTO;
-import app.foxochat.exception.channel.ChannelNotFoundException;
 import app.foxochat.exception.media.MediaCannotBeEmptyException;
 import app.foxochat.exception.member.MemberInChannelNotFoundException;
 import app.foxochat.exception.member.MissingPermissionsException;
@@ -21,7 +20,6 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -35,15 +33,15 @@ public class MessageServiceImpl implements MessageService {
 
     private final MediaService mediaService;
 
-    private final ChannelService channelService;
+    private final TypingService typingService;
 
     public MessageServiceImpl(MessageRepository messageRepository, GatewayService gatewayService,
-                              MemberService memberService, MediaService mediaService, ChannelService channelService) {
+                              MemberService memberService, MediaService mediaService, TypingService typingService) {
         this.messageRepository = messageRepository;
         this.gatewayService = gatewayService;
         this.memberService = memberService;
         this.mediaService = mediaService;
-        this.channelService = channelService;
+        this.typingService = typingService;
     }
 
     @Override
@@ -82,11 +80,12 @@ public class MessageServiceImpl implements MessageService {
 
         Message message = new Message(channel, body.getContent(), member, attachments);
         messageRepository.save(message);
+        // clients clear the indicator on MESSAGE_CREATE, the next keystroke has to be fanned out again
+        typingService.stop(user.getId(), channel.getId());
 
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new MessageDTO(message, true),
-                GatewayConstant.Event.MESSAGE_CREATE.getValue());
+        gatewayService.dispatchToChannel(channel.getId(), List.of(),
+                GatewayConstant.Event.MESSAGE_CREATE,
+                new MessageDTO(message, true));
         log.debug("Message {} to channel {} created successfully", message.getId(), channel.getId());
 
         return message;
@@ -119,10 +118,9 @@ public class MessageServiceImpl implements MessageService {
             throw new MissingPermissionsException();
 
         messageRepository.delete(message);
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                Map.of("id", id, "channel_id", channel.getId()),
-                GatewayConstant.Event.MESSAGE_DELETE.getValue());
+        gatewayService.dispatchToChannel(channel.getId(), List.of(),
+                GatewayConstant.Event.MESSAGE_DELETE,
+                Map.of("id", id, "channel_id", channel.getId()));
         log.debug("Message {} in channel {} deleted successfully", id, channel.getId());
     }
 
@@ -136,10 +134,9 @@ public class MessageServiceImpl implements MessageService {
         message.setContent(content);
         messageRepository.save(message);
 
-        gatewayService.sendMessageToSpecificSessions(getRecipients(channel),
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new MessageDTO(message, true),
-                GatewayConstant.Event.MESSAGE_UPDATE.getValue());
+        gatewayService.dispatchToChannel(channel.getId(), List.of(),
+                GatewayConstant.Event.MESSAGE_UPDATE,
+                new MessageDTO(message, true));
         log.debug("Message {} in channel {} edited successfully", id, channel.getId());
 
         return message;
@@ -149,12 +146,4 @@ public class MessageServiceImpl implements MessageService {
     public Message getLastByChannel(Channel channel) {
         return messageRepository.getLastMessageByChannel(channel).orElse(null);
     }
-
-    private List<Long> getRecipients(Channel channel) throws ChannelNotFoundException {
-        return channelService.getById(channel.getId())
-                .getMembers().stream()
-                .map(Member::getUser)
-                .map(User::getId)
-                .collect(Collectors.toList());
-    }
 }
@@ -4,8 +4,8 @@ import app.foxochat.config.APIConfig;
 import app.foxochat.exception.otp.OTPExpiredException;
 import app.foxochat.exception.otp.OTPsInvalidException;
 import app.foxochat.model.OTP;
-import app.foxochat.repository.OTPRepository;
 import app.foxochat.service.OTPService;
+import app.foxochat.service.OTPStoreService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -13,13 +13,13 @@ import org.springframework.stereotype.Service;
 @Service
 public class OTPServiceImpl implements OTPService {
 
-    private final OTPRepository otpRepository;
+    private final OTPStoreService otpStoreService;
 
     private final APIConfig apiConfig;
 
-    public OTPServiceImpl(OTPRepository otpRepository, APIConfig apiConfig) {
+    public OTPServiceImpl(OTPStoreService otpStoreService, APIConfig apiConfig) {
         this.apiConfig = apiConfig;
-        this.otpRepository = otpRepository;
+        this.otpStoreService = otpStoreService;
     }
 
     @Override
@@ -27,7 +27,7 @@ public class OTPServiceImpl implements OTPService {
 
         if (apiConfig.isDevelopment()) return null;
 
-        OTP OTP = otpRepository.findByValue(pathCode).orElseThrow(OTPsInvalidException::new);
+        OTP OTP = otpStoreService.getByValue(pathCode).orElseThrow(OTPsInvalidException::new);
 
         if (OTP.expiresAt <= System.currentTimeMillis())
             throw new OTPExpiredException();
@@ -40,7 +40,7 @@ public class OTPServiceImpl implements OTPService {
     @Override
     public void delete(OTP OTP) {
         if (!apiConfig.isDevelopment()) {
-            otpRepository.delete(OTP);
+            otpStoreService.delete(OTP);
             log.debug("OTP ({}, {}) deleted successfully", OTP.getValue(), OTP.getUserId());
         }
     }
@@ -48,12 +48,12 @@ public class OTPServiceImpl implements OTPService {
     @Override
     public void save(long id, String type, String digitCode, long issuedAt, long expiresAt) {
         OTP OTP = new OTP(id, type, digitCode, issuedAt, expiresAt);
-        otpRepository.save(OTP);
+        otpStoreService.save(OTP);
         log.debug("OTP ({}, {}) saved successfully", OTP.getValue(), OTP.getUserId());
     }
 
     @Override
     public OTP getByUserId(long userId) throws OTPsInvalidException {
-        return otpRepository.findByUserId(userId).orElseThrow(OTPsInvalidException::new);
+        return otpStoreService.getByUserId(userId).orElseThrow(OTPsInvalidException::new);
     }
 }
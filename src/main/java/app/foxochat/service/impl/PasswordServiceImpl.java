@@ -0,0 +1,138 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.config.PasswordConfig;
+import app.foxochat.exception.api.ServerBusyException;
+import app.foxochat.service.PasswordService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class PasswordServiceImpl implements PasswordService {
+
+    private final int cost;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueTime;
+
+    private final Timer hashTime;
+
+    private final Counter rejected;
+
+    public PasswordServiceImpl(PasswordConfig passwordConfig, MeterRegistry meterRegistry) {
+        this.cost = calibrate(passwordConfig);
+
+        // bcrypt is pure CPU, a few platform threads keep a login burst from taking every core
+        this.executor = new ThreadPoolExecutor(passwordConfig.getThreads(), passwordConfig.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(passwordConfig.getQueueSize()),
+                Thread.ofPlatform().name("password-hasher-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueTime = Timer.builder("password.hash.queue")
+                .description("Time a password hash waited for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.hashTime = Timer.builder("password.hash.duration")
+                .description("Time spent hashing or verifying a password")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hash.rejected")
+                .description("Password hashes rejected because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String hash(String password) throws ServerBusyException {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    @Override
+    public boolean verify(String password, String hashedPassword) throws ServerBusyException {
+        return submit(() -> BCrypt.checkpw(password, hashedPassword));
+    }
+
+    @Override
+    public boolean needsRehash(String hashedPassword) {
+        // $2a$10$... carries the cost in the two digits after the version
+        try {
+            // nodes may calibrate differently, only weaker hashes are upgraded so they never flip back and forth
+            return Integer.parseInt(hashedPassword.substring(4, 6)) < cost;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static int calibrate(PasswordConfig passwordConfig) {
+        int cost = passwordConfig.getCost();
+
+        if (passwordConfig.getTargetLatency() <= 0 || cost >= passwordConfig.getMaxCost()) return cost;
+
+        // warm up first so the timed hash is not measured in the interpreter
+        BCrypt.hashpw("calibration", BCrypt.gensalt(4));
+
+        long startedAt = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(cost));
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+        // every cost step doubles the work
+        while (cost < passwordConfig.getMaxCost() && elapsed * 2 <= passwordConfig.getTargetLatency()) {
+            cost++;
+            elapsed *= 2;
+        }
+
+        log.info("Calibrated bcrypt cost {} (about {}ms per hash, target {}ms)", cost, elapsed,
+                passwordConfig.getTargetLatency());
+        return cost;
+    }
+
+    private <T> T submit(Callable<T> task) throws ServerBusyException {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueTime.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+
+                try {
+                    return task.call();
+                } finally {
+                    hashTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServerBusyException();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServerBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.dto.internal.GatewayClusterMessageDTO;
+import app.foxochat.service.ClusterBusService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "gateway.cluster-bus", havingValue = "postgres")
+public class PostgresClusterBusServiceImpl implements ClusterBusService {
+
+    private static final String CHANNEL = "gateway_dispatch";
+
+    // NOTIFY payloads are limited to 8000 bytes, larger events go through the gateway_dispatches table
+    private static final int MAX_NOTIFY_PAYLOAD = 7900;
+
+    private static final String REFERENCE_PREFIX = "#";
+
+    private static final int POLL_TIMEOUT = 1000;
+
+    private static final long RECONNECT_DELAY = 1000;
+
+    private static final long PURGE_INTERVAL = 60000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final List<Consumer<GatewayClusterMessageDTO>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Thread listener;
+
+    private volatile boolean running = true;
+
+    private long lastPurge;
+
+    public PostgresClusterBusServiceImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                         DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.listener = Thread.ofVirtual().name("gateway-cluster-listener").start(this::listen);
+    }
+
+    @Override
+    public void publish(GatewayClusterMessageDTO message) throws Exception {
+        String payload = objectMapper.writeValueAsString(message);
+
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_PAYLOAD) {
+            Long id = jdbcTemplate.queryForObject("INSERT INTO gateway_dispatches (payload) VALUES (?) RETURNING id",
+                    Long.class, payload);
+            payload = REFERENCE_PREFIX + id;
+        }
+
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> {
+        }, CHANNEL, payload);
+    }
+
+    @Override
+    public void subscribe(Consumer<GatewayClusterMessageDTO> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        listener.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            // a dedicated connection, a pooled one would be held forever and lose LISTEN when recycled
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for gateway cluster events");
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT);
+
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+
+                    purge();
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+
+                log.error("Gateway cluster listener connection failed, reconnecting", e);
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            if (payload.startsWith(REFERENCE_PREFIX)) {
+                List<String> payloads = jdbcTemplate.queryForList("SELECT payload FROM gateway_dispatches WHERE id = ?",
+                        String.class, Long.parseLong(payload.substring(REFERENCE_PREFIX.length())));
+
+                if (payloads.isEmpty()) return;
+
+                payload = payloads.getFirst();
+            }
+
+            GatewayClusterMessageDTO message = objectMapper.readValue(payload, GatewayClusterMessageDTO.class);
+
+            for (Consumer<GatewayClusterMessageDTO> subscriber : subscribers) {
+                subscriber.accept(message);
+            }
+        } catch (Exception e) {
+            log.error("Failed to handle gateway cluster event", e);
+        }
+    }
+
+    private void purge() {
+        long now = System.currentTimeMillis();
+
+        if (now - lastPurge < PURGE_INTERVAL) return;
+        lastPurge = now;
+
+        try {
+            jdbcTemplate.update("DELETE FROM gateway_dispatches WHERE created_at < now() - interval '1 minute'");
+        } catch (Exception e) {
+            log.error("Failed to purge gateway cluster events", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.config.OTPConfig;
+import app.foxochat.model.OTP;
+import app.foxochat.repository.OTPRepository;
+import app.foxochat.service.OTPStoreService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "postgres", matchIfMissing = true)
+public class PostgresOTPStoreServiceImpl implements OTPStoreService {
+
+    private final OTPRepository otpRepository;
+
+    private final OTPConfig otpConfig;
+
+    private final ScheduledExecutorService executor;
+
+    public PostgresOTPStoreServiceImpl(OTPRepository otpRepository, OTPConfig otpConfig) {
+        this.otpRepository = otpRepository;
+        this.otpConfig = otpConfig;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("otp-purge").factory());
+        this.executor.scheduleWithFixedDelay(this::purgeSafely, otpConfig.getPurgeInterval(),
+                otpConfig.getPurgeInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(OTP OTP) {
+        otpRepository.save(OTP);
+    }
+
+    @Override
+    public Optional<OTP> getByValue(String value) {
+        return otpRepository.findByValue(value);
+    }
+
+    @Override
+    public Optional<OTP> getByUserId(long userId) {
+        return otpRepository.findByUserId(userId);
+    }
+
+    @Override
+    public void delete(OTP OTP) {
+        otpRepository.delete(OTP);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void purgeSafely() {
+        try {
+            purge();
+        } catch (Exception e) {
+            log.error("Failed to purge expired OTPs", e);
+        }
+    }
+
+    private void purge() {
+        long now = System.currentTimeMillis();
+        int batchSize = otpConfig.getPurgeBatchSize();
+        int purged = 0;
+        int deleted;
+
+        // small batches keep each delete short so it never holds locks for long
+        do {
+            deleted = otpRepository.deleteExpired(now, batchSize);
+            purged += deleted;
+        } while (deleted == batchSize && !Thread.currentThread().isInterrupted());
+
+        if (purged > 0) log.debug("Purged {} expired OTPs", purged);
+    }
+}
@@ -0,0 +1,174 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.config.PresenceConfig;
+import app.foxochat.constant.GatewayConstant;
+import app.foxochat.constant.UserConstant;
+import app.foxochat.dto.gateway.response.UserUpdateDTO;
+import app.foxochat.repository.UserRepository;
+import app.foxochat.service.GatewayService;
+import app.foxochat.service.MemberService;
+import app.foxochat.service.PresenceService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class PresenceServiceImpl implements PresenceService {
+
+    private static final int ONLINE = UserConstant.Status.ONLINE.getStatus();
+
+    private static final int OFFLINE = UserConstant.Status.OFFLINE.getStatus();
+
+    private final ConcurrentHashMap<Long, Presence> presences = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    private final MemberService memberService;
+
+    private final GatewayService gatewayService;
+
+    private final CacheManager cacheManager;
+
+    private final PresenceConfig presenceConfig;
+
+    private final ScheduledExecutorService executor;
+
+    public PresenceServiceImpl(UserRepository userRepository, MemberService memberService,
+                               @Lazy GatewayService gatewayService, CacheManager cacheManager,
+                               PresenceConfig presenceConfig) {
+        this.userRepository = userRepository;
+        this.memberService = memberService;
+        this.gatewayService = gatewayService;
+        this.cacheManager = cacheManager;
+        this.presenceConfig = presenceConfig;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("presence-flush").factory());
+        this.executor.scheduleWithFixedDelay(this::flushSafely, presenceConfig.getFlushInterval(),
+                presenceConfig.getFlushInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void connect(long userId) {
+        presences.compute(userId, (id, presence) -> {
+            if (presence == null) presence = new Presence();
+
+            if (presence.sessions++ == 0) presence.change(ONLINE);
+            return presence;
+        });
+    }
+
+    @Override
+    public void disconnect(long userId) {
+        presences.computeIfPresent(userId, (id, presence) -> {
+            if (presence.sessions > 0 && --presence.sessions == 0) presence.change(OFFLINE);
+            return presence;
+        });
+    }
+
+    @Override
+    public int getStatus(long userId) {
+        Presence presence = presences.get(userId);
+
+        return presence != null && presence.sessions > 0 ? ONLINE : OFFLINE;
+    }
+
+    @Override
+    public void flush() {
+        long now = System.currentTimeMillis();
+        List<Long> online = new ArrayList<>();
+        List<Long> offline = new ArrayList<>();
+
+        for (Long userId : presences.keySet()) {
+            presences.computeIfPresent(userId, (id, presence) -> {
+                // a user who reconnects within the offline delay never leaves ONLINE
+                if (presence.status == OFFLINE && presence.published != OFFLINE
+                        && now - presence.changedAt < presenceConfig.getOfflineDelay()) return presence;
+
+                if (presence.status != presence.published) {
+                    (presence.status == ONLINE ? online : offline).add(id);
+                    presence.published = presence.status;
+                }
+
+                return presence.status == OFFLINE ? null : presence;
+            });
+        }
+
+        persist(online, ONLINE, now);
+        persist(offline, OFFLINE, now);
+
+        publish(online, ONLINE);
+        publish(offline, OFFLINE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        flushSafely();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Failed to flush user presence", e);
+        }
+    }
+
+    private void persist(List<Long> userIds, int status, long updatedAt) {
+        if (userIds.isEmpty()) return;
+
+        int batchSize = presenceConfig.getBatchSize();
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            userRepository.updateStatusByIds(userIds.subList(from, Math.min(from + batchSize, userIds.size())),
+                    status, updatedAt);
+        }
+
+        // cached entities still carry the previous status
+        Cache users = cacheManager.getCache("users");
+        if (users != null) userIds.forEach(users::evict);
+
+        log.debug("Persisted status {} for {} users", status, userIds.size());
+    }
+
+    private void publish(List<Long> userIds, int status) {
+        int batchSize = presenceConfig.getBatchSize();
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<Long> batch = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            Map<Long, List<Long>> partners = memberService.getChannelPartnerIdsByUserIds(batch);
+
+            for (long userId : batch) {
+                gatewayService.dispatchToUsers(userId, partners.getOrDefault(userId, List.of()),
+                        GatewayConstant.Event.USER_UPDATE,
+                        new UserUpdateDTO(userId, null, null, null, status, -1, -1));
+            }
+        }
+    }
+
+    private static final class Presence {
+
+        // written inside compute, read by getStatus without the map lock
+        private volatile int sessions;
+
+        private volatile int status = OFFLINE;
+
+        private int published = -1;
+
+        private long changedAt;
+
+        private void change(int status) {
+            this.status = status;
+            this.changedAt = System.currentTimeMillis();
+        }
+    }
+}
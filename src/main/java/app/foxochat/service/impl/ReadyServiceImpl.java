@@ -0,0 +1,83 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.constant.UserConstant;
+import app.foxochat.dto.api.response.UserDTO;
+import app.foxochat.dto.gateway.response.ReadyChannelDTO;
+import app.foxochat.dto.gateway.response.ReadyChunkDTO;
+import app.foxochat.dto.gateway.response.ReadyDTO;
+import app.foxochat.dto.gateway.response.ReadyUserDTO;
+import app.foxochat.model.User;
+import app.foxochat.service.PresenceService;
+import app.foxochat.service.ReadyService;
+import app.foxochat.service.TypingService;
+import app.foxochat.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class ReadyServiceImpl implements ReadyService {
+
+    private final UserService userService;
+
+    private final PresenceService presenceService;
+
+    private final TypingService typingService;
+
+    private final GatewayConfig gatewayConfig;
+
+    public ReadyServiceImpl(UserService userService, PresenceService presenceService, TypingService typingService,
+                            GatewayConfig gatewayConfig) {
+        this.userService = userService;
+        this.presenceService = presenceService;
+        this.typingService = typingService;
+        this.gatewayConfig = gatewayConfig;
+    }
+
+    @Override
+    public ReadyDTO getReady(User user, List<ReadyChannelDTO> channels) {
+        List<Long> contactIds = userService.getContactIds(user.getId());
+
+        Set<Long> userIds = new LinkedHashSet<>(contactIds);
+        for (ReadyChannelDTO channel : channels) {
+            if (channel.getPartnerId() > 0) userIds.add(channel.getPartnerId());
+        }
+
+        List<ReadyUserDTO> users = userService.getReadyUsersByIds(userIds);
+        for (ReadyUserDTO readyUser : users) {
+            // status in the database lags behind the in-memory presence by up to one flush
+            int status = presenceService.getStatus(readyUser.getId());
+            if (status == UserConstant.Status.ONLINE.getStatus()) readyUser.setStatus(status);
+        }
+
+        List<Long> channelIds = channels.stream().map(ReadyChannelDTO::getId).toList();
+        UserDTO me = new UserDTO(user, channelIds, contactIds, true, true, true);
+        me.setStatus(presenceService.getStatus(user.getId()));
+
+        int chunkSize = gatewayConfig.getReadyChunkSize();
+        int chunkCount = Math.max(1, (Math.max(channels.size(), users.size()) + chunkSize - 1) / chunkSize);
+
+        List<ReadyChunkDTO> chunks = new ArrayList<>();
+        for (int i = 1; i < chunkCount; i++) {
+            chunks.add(new ReadyChunkDTO(i, chunkCount, slice(channels, i, chunkSize), slice(users, i, chunkSize)));
+        }
+
+        log.debug("Built READY for user {} ({} channels, {} users, {} chunks)", user.getId(), channels.size(),
+                users.size(), chunkCount);
+        return new ReadyDTO(me, slice(channels, 0, chunkSize), slice(users, 0, chunkSize),
+                typingService.getTyping(channelIds), chunkCount, chunks);
+    }
+
+    private static <T> List<T> slice(List<T> list, int chunk, int chunkSize) {
+        int from = Math.min(list.size(), chunk * chunkSize);
+        int to = Math.min(list.size(), from + chunkSize);
+
+        return list.subList(from, to);
+    }
+}
@@ -0,0 +1,106 @@
+package app.foxochat.service.impl;
+
+import app.foxochat.config.GatewayConfig;
+import app.foxochat.dto.gateway.response.TypingStartDTO;
+import app.foxochat.service.TypingService;
+import app.foxochat.util.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class TypingServiceImpl implements TypingService {
+
+    private static final long TICK = 500;
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, Long>> typing = new ConcurrentHashMap<>();
+
+    private final TimingWheel<Typing> wheel = new TimingWheel<>("gateway-typing", TICK, WHEEL_SIZE, this::expire);
+
+    private final GatewayConfig gatewayConfig;
+
+    public TypingServiceImpl(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this.gatewayConfig = gatewayConfig;
+
+        Gauge.builder("gateway.typing.active", wheel, TimingWheel::size)
+                .description("Users currently typing")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean start(long userId, long channelId) {
+        long now = System.currentTimeMillis();
+        long timeout = gatewayConfig.getTypingTimeout();
+        boolean[] started = {false};
+
+        typing.compute(channelId, (id, users) -> {
+            if (users == null) users = new ConcurrentHashMap<>();
+
+            Long startedAt = users.get(userId);
+            if (startedAt == null || now - startedAt >= timeout) {
+                users.put(userId, now);
+                wheel.schedule(new Typing(channelId, userId), now + timeout);
+                started[0] = true;
+            }
+
+            return users;
+        });
+
+        return started[0];
+    }
+
+    @Override
+    public void stop(long userId, long channelId) {
+        typing.computeIfPresent(channelId, (id, users) -> {
+            if (users.remove(userId) != null) wheel.cancel(new Typing(channelId, userId));
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    @Override
+    public List<TypingStartDTO> getTyping(Collection<Long> channelIds) {
+        List<TypingStartDTO> result = new ArrayList<>();
+
+        for (long channelId : channelIds) {
+            ConcurrentHashMap<Long, Long> users = typing.get(channelId);
+
+            if (users == null) continue;
+
+            users.forEach((userId, startedAt) -> result.add(new TypingStartDTO(channelId, userId, startedAt)));
+        }
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    private void expire(Typing key) {
+        long now = System.currentTimeMillis();
+
+        typing.computeIfPresent(key.channelId(), (id, users) -> {
+            // the entry may have been restarted after this timeout was already taken off the wheel
+            Long startedAt = users.get(key.userId());
+            if (startedAt != null && now - startedAt >= gatewayConfig.getTypingTimeout() - TICK) {
+                users.remove(key.userId());
+            }
+
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private record Typing(long channelId, long userId) {
+    }
+}
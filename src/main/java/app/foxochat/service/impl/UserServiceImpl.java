@@ -7,28 +7,33 @@ import app.foxochat.constant.OTPConstant;
 import app.foxochat.constant.UserConstant;
 import app.foxochat.dto.api.request.UserEditDTO;
 import app.foxochat.dto.api.response.UserDTO;
+import app.foxochat.dto.gateway.response.ReadyUserDTO;
 import app.foxochat.dto.gateway.response.UserUpdateDTO;
+import app.foxochat.dto.internal.PrincipalDTO;
+import app.foxochat.exception.api.ServerBusyException;
 import app.foxochat.exception.otp.OTPExpiredException;
 import app.foxochat.exception.otp.OTPsInvalidException;
 import app.foxochat.exception.user.*;
-import app.foxochat.model.Member;
 import app.foxochat.model.OTP;
 import app.foxochat.model.User;
 import app.foxochat.model.UserContact;
 import app.foxochat.repository.UserRepository;
 import app.foxochat.service.*;
 import app.foxochat.util.OTPGenerator;
-import app.foxochat.util.PasswordHasher;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -46,18 +51,21 @@ public class UserServiceImpl implements UserService {
 
     private final GatewayService gatewayService;
 
-    private final MemberService memberService;
+    private final PasswordService passwordService;
+
+    private final CacheManager cacheManager;
 
     public UserServiceImpl(UserRepository userRepository, EmailService emailService, OTPService otpService,
                            MediaService mediaService, APIConfig apiConfig, @Lazy GatewayService gatewayService,
-                           MemberService memberService) {
+                           PasswordService passwordService, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.otpService = otpService;
         this.mediaService = mediaService;
         this.apiConfig = apiConfig;
         this.gatewayService = gatewayService;
-        this.memberService = memberService;
+        this.passwordService = passwordService;
+        this.cacheManager = cacheManager;
     }
 
     @Override
@@ -66,6 +74,18 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(id);
     }
 
+    @Override
+    @Cacheable("principals")
+    public Optional<PrincipalDTO> getPrincipal(long id) {
+        return userRepository.findPrincipalById(id);
+    }
+
+    @Override
+    @Cacheable(value = "users", key = "#principal.id")
+    public User getByPrincipal(PrincipalDTO principal) throws UserUnauthorizedException {
+        return userRepository.findById(principal.getId()).orElseThrow(UserUnauthorizedException::new);
+    }
+
     @Override
     @Cacheable("users")
     public Optional<User> getByUsername(String username) {
@@ -79,24 +99,42 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(value = "users", key = "#user.id"),
+            @CacheEvict(value = "principals", key = "#user.id")
+    })
     public void save(User user) {
         userRepository.save(user);
     }
 
+    @Override
+    public List<Long> getContactIds(long userId) {
+        return userRepository.findContactIdsByUserId(userId);
+    }
+
+    @Override
+    public List<ReadyUserDTO> getReadyUsersByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        return userRepository.findReadyUsersByIds(ids);
+    }
+
     @Override
     public void updateFlags(User user, UserConstant.Flags removeFlag, UserConstant.Flags addFlag) {
         user.removeFlag(removeFlag);
         user.addFlag(addFlag);
         userRepository.save(user);
+        evictPrincipal(user.getId());
     }
 
     @Override
-    public User add(String username, String email, String password) throws UserCredentialsDuplicateException {
+    public User add(String username, String email, String password)
+            throws UserCredentialsDuplicateException, ServerBusyException {
         long flags = UserConstant.Flags.AWAITING_CONFIRMATION.getBit();
         if (apiConfig.isDevelopment()) flags = UserConstant.Flags.EMAIL_VERIFIED.getBit();
         int type = UserConstant.Type.USER.getType();
 
-        User user = new User(username, email, PasswordHasher.hashPassword(password), flags, type);
+        User user = new User(username, email, passwordService.hash(password), flags, type);
 
         try {
             userRepository.save(user);
@@ -129,12 +167,11 @@ public class UserServiceImpl implements UserService {
                 else user.setBanner(mediaService.getAvatarById(banner));
             }
 
-            gatewayService.sendMessageToSpecificSessions(user.getContacts().stream()
+            gatewayService.dispatchToUsers(user.getId(), user.getContacts().stream()
                             .map(userContact -> userContact.getContact().getId()).toList(),
-                    GatewayConstant.Opcode.DISPATCH.ordinal(),
+                    GatewayConstant.Event.USER_UPDATE,
                     new UserUpdateDTO(user.getId(), username, displayName, bio, -1, avatar != null ? avatar : 0,
-                            banner != null ? banner : 0),
-                    GatewayConstant.Event.USER_UPDATE.getValue());
+                            banner != null ? banner : 0));
         }
         if (body.getEmail() != null) changeEmail(user, body);
         if (body.getPassword() != null) changePassword(user, body);
@@ -145,14 +182,16 @@ public class UserServiceImpl implements UserService {
             throw new UserCredentialsDuplicateException();
         }
 
+        evictPrincipal(user.getId());
         log.debug("User {} edited successfully", user.getUsername());
 
         return user;
     }
 
     @Override
-    public void requestDelete(User user, String password) throws UserCredentialsIsInvalidException {
-        if (!PasswordHasher.verifyPassword(password, user.getPassword()))
+    public void requestDelete(User user, String password)
+            throws UserCredentialsIsInvalidException, ServerBusyException {
+        if (!passwordService.verify(password, user.getPassword()))
             throw new UserCredentialsIsInvalidException();
 
         sendEmail(user, EmailConstant.Type.ACCOUNT_DELETE);
@@ -164,6 +203,7 @@ public class UserServiceImpl implements UserService {
         OTP OTP = otpService.validate(pathCode);
 
         userRepository.delete(user);
+        evictPrincipal(user.getId());
 
         log.debug("User {} deleted successfully", user.getUsername());
 
@@ -172,27 +212,6 @@ public class UserServiceImpl implements UserService {
         otpService.delete(OTP);
     }
 
-    @Override
-    public void setStatus(long userId, int status) throws Exception {
-        User user = getById(userId).orElseThrow(UserNotFoundException::new);
-
-        user.setStatus(status);
-        user.setStatusUpdatedAt(System.currentTimeMillis());
-        userRepository.save(user);
-
-        List<Long> recipients = memberService.getChannelsByUserId(user.getId()).stream()
-                .flatMap(channel -> channel.getMembers().stream())
-                .map(Member::getId)
-                .distinct()
-                .collect(Collectors.toList());
-
-        gatewayService.sendMessageToSpecificSessions(recipients,
-                GatewayConstant.Opcode.DISPATCH.ordinal(),
-                new UserUpdateDTO(userId, null, null, null, status, -1, -1),
-                GatewayConstant.Event.USER_UPDATE.getValue());
-        log.debug("Set user {} status {} successfully", user.getUsername(), status);
-    }
-
     @Override
     public User addContact(User user, long id) throws UserContactAlreadyExistException {
         try {
@@ -200,10 +219,9 @@ public class UserServiceImpl implements UserService {
             user.getContacts().add(new UserContact(user, contact));
             userRepository.save(user);
 
-            gatewayService.sendMessageToSpecificSessions(Collections.singletonList(contact.getId()),
-                    GatewayConstant.Opcode.DISPATCH.ordinal(),
-                    new UserDTO(user, null, null, false, false, false),
-                    GatewayConstant.Event.CONTACT_ADD.getValue());
+            gatewayService.dispatchToUsers(user.getId(), Collections.singletonList(contact.getId()),
+                    GatewayConstant.Event.CONTACT_ADD,
+                    new UserDTO(user, null, null, false, false, false));
             log.debug("Successfully added contact {} to user {}", contact.getId(), user.getId());
             return contact;
         } catch (DataIntegrityViolationException e) {
@@ -220,10 +238,9 @@ public class UserServiceImpl implements UserService {
             user.getContacts().remove(new UserContact(user, contact));
             userRepository.save(user);
 
-            gatewayService.sendMessageToSpecificSessions(Collections.singletonList(contact.getId()),
-                    GatewayConstant.Opcode.DISPATCH.ordinal(),
-                    new UserDTO(user, null, null, false, false, false),
-                    GatewayConstant.Event.CONTACT_DELETE.getValue());
+            gatewayService.dispatchToUsers(user.getId(), Collections.singletonList(contact.getId()),
+                    GatewayConstant.Event.CONTACT_DELETE,
+                    new UserDTO(user, null, null, false, false, false));
             log.debug("Successfully deleted contact {} from user {}", contact.getId(), user.getId());
         } catch (DataIntegrityViolationException e) {
             throw new UserContactNotFoundException();
@@ -243,8 +260,8 @@ public class UserServiceImpl implements UserService {
                 body.getEmail());
     }
 
-    private void changePassword(User user, UserEditDTO body) {
-        user.setPassword(PasswordHasher.hashPassword(body.getPassword()));
+    private void changePassword(User user, UserEditDTO body) throws ServerBusyException {
+        user.setPassword(passwordService.hash(body.getPassword()));
         user.setTokenVersion(user.getTokenVersion() + 1);
         user.addFlag(UserConstant.Flags.AWAITING_CONFIRMATION);
 
@@ -252,6 +269,12 @@ public class UserServiceImpl implements UserService {
         log.debug("Sent email request to change user {} password", user.getUsername());
     }
 
+    // saves inside this class skip the proxy, so @CacheEvict on save() does not apply to them
+    private void evictPrincipal(long id) {
+        Cache principals = cacheManager.getCache("principals");
+        if (principals != null) principals.evict(id);
+    }
+
     private void sendEmail(User user, EmailConstant.Type type) {
         String emailType = type.getValue();
         String code = OTPGenerator.generateDigitCode();
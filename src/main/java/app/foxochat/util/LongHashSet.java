@@ -0,0 +1,159 @@
+package app.foxochat.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+public class LongHashSet {
+
+    private static final long EMPTY = 0;
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+
+    private boolean containsEmpty;
+
+    private int size;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        this.keys = new long[capacityFor(expectedSize)];
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int mask = keys.length - 1;
+        int index = indexOf(value, mask);
+
+        while (keys[index] != EMPTY) {
+            if (keys[index] == value) return false;
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = value;
+        size++;
+
+        if (size * 4 > keys.length * 3) rehash(keys.length * 2);
+        return true;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsEmpty) return false;
+            containsEmpty = false;
+            size--;
+            return true;
+        }
+
+        int mask = keys.length - 1;
+        int index = indexOf(value, mask);
+
+        while (keys[index] != value) {
+            if (keys[index] == EMPTY) return false;
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = EMPTY;
+        size--;
+
+        // shift the rest of the probe chain back so lookups never stop at the hole
+        int next = (index + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = indexOf(keys[next], mask);
+
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                keys[index] = keys[next];
+                keys[next] = EMPTY;
+                index = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) return containsEmpty;
+
+        int mask = keys.length - 1;
+        int index = indexOf(value, mask);
+
+        while (keys[index] != EMPTY) {
+            if (keys[index] == value) return true;
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (containsEmpty) consumer.accept(EMPTY);
+
+        for (long key : keys) {
+            if (key != EMPTY) consumer.accept(key);
+        }
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int[] position = {0};
+
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private void rehash(int capacity) {
+        long[] previous = keys;
+        keys = new long[capacity];
+
+        int mask = capacity - 1;
+        for (long key : previous) {
+            if (key == EMPTY) continue;
+
+            int index = indexOf(key, mask);
+            while (keys[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            keys[index] = key;
+        }
+    }
+
+    private static int indexOf(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
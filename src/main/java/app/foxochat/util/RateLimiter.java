@@ -0,0 +1,85 @@
+package app.foxochat.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class RateLimiter {
+
+    private static final int WAYS = 8;
+
+    // GCRA theoretical arrival time per key, a slot whose time is in the past holds no state and can be reused
+    private final AtomicReferenceArray<Slot> slots;
+
+    private final int bucketMask;
+
+    public RateLimiter(int capacity) {
+        int buckets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1) << 1);
+
+        this.slots = new AtomicReferenceArray<>(buckets * WAYS);
+        this.bucketMask = buckets - 1;
+    }
+
+    // returns 0 when the request is allowed, otherwise milliseconds until it would be
+    public long acquire(long key, int limit, long period, long now) {
+        long interval = Math.max(1, period / limit);
+        long tolerance = period - interval;
+        int base = (int) (mix(key) & bucketMask) * WAYS;
+
+        while (true) {
+            int index = -1;
+            Slot current = null;
+            int free = -1;
+            int oldest = -1;
+            long oldestArrival = Long.MAX_VALUE;
+
+            // the whole bucket is checked for the key before any slot is reused
+            for (int i = base; i < base + WAYS; i++) {
+                Slot slot = slots.get(i);
+
+                if (slot != null && slot.key() == key) {
+                    index = i;
+                    current = slot;
+                    break;
+                }
+
+                if (free == -1 && (slot == null || slot.arrival() <= now)) free = i;
+                if (slot != null && slot.arrival() < oldestArrival) {
+                    oldest = i;
+                    oldestArrival = slot.arrival();
+                }
+            }
+
+            if (index == -1) {
+                // a full bucket of live keys gives up the one closest to expiring so memory stays bounded
+                index = free != -1 ? free : oldest;
+                current = slots.get(index);
+            }
+
+            long arrival = current != null && current.key() == key ? current.arrival() : now;
+            long start = Math.max(arrival, now);
+
+            if (start - now > tolerance) return start - now - tolerance;
+
+            // key and arrival time are swapped together, a lost race rescans the bucket
+            if (slots.compareAndSet(index, current, new Slot(key, start + interval))) return 0;
+        }
+    }
+
+    public static long hash(long seed, CharSequence value) {
+        long hash = 0xCBF29CE484222325L ^ seed;
+
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+
+        return hash;
+    }
+
+    private static long mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private record Slot(long key, long arrival) {
+    }
+}
@@ -0,0 +1,58 @@
+package app.foxochat.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Template {
+
+    private final String[] parts;
+
+    private final int[] arguments;
+
+    private final int length;
+
+    private Template(String[] parts, int[] arguments, int length) {
+        this.parts = parts;
+        this.arguments = arguments;
+        this.length = length;
+    }
+
+    // splits the source around {n} placeholders once, rendering then only appends the pieces
+    public static Template compile(String source) {
+        List<String> parts = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        int start = 0;
+
+        for (int open = source.indexOf('{'); open != -1; open = source.indexOf('{', open + 1)) {
+            int close = open + 1;
+            while (close < source.length() && Character.isDigit(source.charAt(close))) close++;
+
+            if (close == open + 1 || close >= source.length() || source.charAt(close) != '}') continue;
+
+            parts.add(source.substring(start, open));
+            arguments.add(Integer.parseInt(source.substring(open + 1, close)));
+            start = close + 1;
+            open = close;
+        }
+
+        parts.add(source.substring(start));
+
+        return new Template(parts.toArray(String[]::new), arguments.stream().mapToInt(Integer::intValue).toArray(),
+                parts.stream().mapToInt(String::length).sum());
+    }
+
+    public String render(String... values) {
+        StringBuilder builder = new StringBuilder(length + 64 * arguments.length);
+
+        for (int i = 0; i < arguments.length; i++) {
+            builder.append(parts[i]);
+
+            int argument = arguments[i];
+            // placeholders without a value are kept as they are
+            if (argument < values.length) builder.append(values[argument]);
+            else builder.append('{').append(argument).append('}');
+        }
+
+        return builder.append(parts[arguments.length]).toString();
+    }
+}
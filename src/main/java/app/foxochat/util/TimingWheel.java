@@ -0,0 +1,117 @@
+package app.foxochat.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@Slf4j
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final Set<Timeout<T>>[] buckets;
+
+    private final ConcurrentHashMap<T, Timeout<T>> timeouts = new ConcurrentHashMap<>();
+
+    private final Consumer<T> onExpire;
+
+    private final ScheduledExecutorService executor;
+
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<T> onExpire) {
+        this.tickMillis = tickMillis;
+        this.onExpire = onExpire;
+        this.buckets = new Set[wheelSize];
+
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name(name).factory());
+        this.executor.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void schedule(T key, long deadline) {
+        Timeout<T> timeout = new Timeout<>(key, deadline);
+        Timeout<T> previous = timeouts.put(key, timeout);
+
+        if (previous != null) buckets[bucketOf(previous.deadline)].remove(previous);
+
+        buckets[bucketOf(deadline)].add(timeout);
+    }
+
+    public void cancel(T key) {
+        Timeout<T> timeout = timeouts.remove(key);
+
+        if (timeout != null) buckets[bucketOf(timeout.deadline)].remove(timeout);
+    }
+
+    public boolean contains(T key) {
+        return timeouts.containsKey(key);
+    }
+
+    public int size() {
+        return timeouts.size();
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private int bucketOf(long deadline) {
+        return (int) Math.floorMod(deadline / tickMillis, (long) buckets.length);
+    }
+
+    private void advance() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / tickMillis;
+
+        // a late run has to catch up on every tick it missed, but never more than one revolution
+        long firstTick = Math.max(lastTick + 1, currentTick - buckets.length + 1);
+
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            expire(buckets[(int) Math.floorMod(tick, (long) buckets.length)], now);
+        }
+
+        lastTick = currentTick;
+    }
+
+    private void expire(Set<Timeout<T>> bucket, long now) {
+        for (Timeout<T> timeout : bucket) {
+            if (timeouts.get(timeout.key) != timeout) {
+                bucket.remove(timeout);
+                continue;
+            }
+
+            if (timeout.deadline > now || !timeouts.remove(timeout.key, timeout)) continue;
+
+            bucket.remove(timeout);
+
+            try {
+                onExpire.accept(timeout.key);
+            } catch (Exception e) {
+                log.error("Timer task for {} failed", timeout.key, e);
+            }
+        }
+    }
+
+    private static final class Timeout<T> {
+
+        private final T key;
+
+        private final long deadline;
+
+        private Timeout(T key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+CREATE TABLE gateway_dispatches
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    payload    TEXT                                    NOT NULL,
+    created_at TIMESTAMP                               NOT NULL DEFAULT now(),
+    CONSTRAINT pk_gateway_dispatches PRIMARY KEY (id)
+);
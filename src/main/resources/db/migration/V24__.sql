@@ -0,0 +1 @@
+CREATE INDEX idx_otp_expires_at ON otps (expires_at);
@@ -0,0 +1,13 @@
+CREATE TABLE email_outbox
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    recipient       VARCHAR(255)                            NOT NULL,
+    subject         VARCHAR(255)                            NOT NULL,
+    body            TEXT                                    NOT NULL,
+    attempts        INTEGER                                 NOT NULL DEFAULT 0,
+    next_attempt_at BIGINT                                  NOT NULL,
+    created_at      BIGINT                                  NOT NULL,
+    CONSTRAINT pk_email_outbox PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_email_outbox_next_attempt_at ON email_outbox (next_attempt_at);